@@ -2,8 +2,10 @@ package hr.truenorth.graphql.graphql;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class GraphqlApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,226 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import graphql.ErrorClassification;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of GraphQL execution.
+ *
+ * Each request first takes a token from its client's bucket, then a slot from the
+ * bulkhead of its operation. A request that can't get either is answered right away
+ * with a GraphQL error and a Retry-After header instead of tying up a thread.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlInterceptor implements WebGraphQlInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+    // Operation keys come from the request, so cap how many get their own bulkhead
+    private static final int MAX_TRACKED_OPERATIONS = 256;
+    private static final String OTHER_OPERATIONS = "(other)";
+    // Same for client keys; full buckets are dropped first since they behave like new ones
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+    private static final String OTHER_CLIENTS = "(other)";
+    // How many buckets a new client looks at for one to evict, so admission stays O(1)
+    private static final int EVICTION_SCAN = 64;
+
+    private final AdmissionProperties properties;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, OperationBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final LongAdder rateLimited = new LongAdder();
+    // Picks up where the last eviction stopped, so busy buckets at the front aren't rescanned
+    private Iterator<TokenBucket> evictionCursor = Collections.emptyIterator();
+
+    public AdmissionControlInterceptor(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!properties.enabled()) {
+            return chain.next(request);
+        }
+
+        String client = clientKey(request);
+        TokenBucket bucket = bucketFor(client);
+        if (!bucket.tryConsume()) {
+            rateLimited.increment();
+            logger.warn("Rate limit exceeded for client: {}", client);
+            return Mono.just(reject(request, new AdmissionRejectedException("RATE_LIMITED",
+                    "Rate limit exceeded for client " + client, bucket.secondsUntilNextToken())));
+        }
+
+        String operation = operationKey(request);
+        OperationBulkhead bulkhead = bulkheadFor(operation);
+        return bulkhead.acquire(operation, properties.maxQueueWait())
+                .then(Mono.defer(() -> chain.next(request)).doFinally(signal -> bulkhead.release()))
+                .onErrorResume(AdmissionRejectedException.class, ex -> {
+                    logger.warn("Shed execution of {}: {}", operation, ex.getMessage());
+                    return Mono.just(reject(request, ex));
+                });
+    }
+
+    public AdmissionStats stats() {
+        Map<String, OperationStats> operations = new TreeMap<>();
+        bulkheads.forEach((operation, bulkhead) -> operations.put(operation, bulkhead.stats()));
+        return new AdmissionStats(clientBuckets.size(), rateLimited.sum(), operations);
+    }
+
+    private TokenBucket bucketFor(String client) {
+        TokenBucket bucket = clientBuckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (clientBuckets.size() >= MAX_TRACKED_CLIENTS) {
+            evictFullBuckets();
+        }
+        String key = clientBuckets.size() < MAX_TRACKED_CLIENTS ? client : OTHER_CLIENTS;
+        return clientBuckets.computeIfAbsent(key,
+                c -> new TokenBucket(properties.burst(), properties.requestsPerSecond()));
+    }
+
+    /**
+     * Drops the full buckets among the next EVICTION_SCAN entries of a sweep around the
+     * map. Only runs once the map is at its cap, so the lock is off the common path.
+     */
+    private synchronized void evictFullBuckets() {
+        for (int scanned = 0; scanned < EVICTION_SCAN; scanned++) {
+            if (!evictionCursor.hasNext()) {
+                evictionCursor = clientBuckets.values().iterator();
+                if (!evictionCursor.hasNext()) {
+                    return;
+                }
+            }
+            if (evictionCursor.next().isFull()) {
+                evictionCursor.remove();
+            }
+        }
+    }
+
+    private OperationBulkhead bulkheadFor(String operation) {
+        OperationBulkhead bulkhead = bulkheads.get(operation);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        // Configured operations always get their own bulkhead, or flooding the map would lift their cap
+        String key = bulkheads.size() < MAX_TRACKED_OPERATIONS || properties.hasOwnLimit(operation)
+                ? operation
+                : OTHER_OPERATIONS;
+        return bulkheads.computeIfAbsent(key,
+                op -> new OperationBulkhead(properties.maxConcurrentFor(op), properties.maxQueued()));
+    }
+
+    /**
+     * The client named in clientKeyHeader if the request came through a trusted proxy,
+     * otherwise the remote address. Anyone else could rotate the header to get a fresh bucket.
+     */
+    private String clientKey(WebGraphQlRequest request) {
+        String remoteAddress = request.getRemoteAddress() != null
+                ? request.getRemoteAddress().getAddress().getHostAddress()
+                : null;
+        if (remoteAddress != null && properties.trustedProxies().contains(remoteAddress)) {
+            String header = request.getHeaders().getFirst(properties.clientKeyHeader());
+            if (StringUtils.hasText(header)) {
+                return header;
+            }
+        }
+        return remoteAddress != null ? remoteAddress : "anonymous";
+    }
+
+    /**
+     * The root fields of the operation that will run, e.g. "disclosuresNPlusOne", whatever
+     * the client named it. If a root field has its own limit the most restrictive one is
+     * the key, so neither an operation name nor an extra root field moves a capped field
+     * into a roomier bulkhead.
+     */
+    private String operationKey(WebGraphQlRequest request) {
+        try {
+            Document document = Parser.parse(request.getDocument());
+            Map<String, FragmentDefinition> fragments = new HashMap<>();
+            document.getDefinitionsOfType(FragmentDefinition.class)
+                    .forEach(fragment -> fragments.putIfAbsent(fragment.getName(), fragment));
+            String operationName = request.getOperationName();
+
+            SortedSet<String> rootFields = new TreeSet<>();
+            document.getDefinitionsOfType(OperationDefinition.class).stream()
+                    .filter(operation -> !StringUtils.hasText(operationName) || operationName.equals(operation.getName()))
+                    .findFirst()
+                    .ifPresent(operation -> collectFields(operation.getSelectionSet(), fragments, rootFields, new HashSet<>()));
+            if (rootFields.isEmpty()) {
+                return "anonymous";
+            }
+            return rootFields.stream()
+                    .filter(properties::hasOwnLimit)
+                    .min(Comparator.comparingInt(properties::maxConcurrentFor))
+                    .orElseGet(() -> String.join("+", rootFields));
+        } catch (RuntimeException ex) {
+            // Let execution report the syntax error
+            return "anonymous";
+        }
+    }
+
+    private static void collectFields(SelectionSet selectionSet, Map<String, FragmentDefinition> fragments,
+                                      Set<String> fields, Set<String> visitedFragments) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                fields.add(field.getName());
+            } else if (selection instanceof InlineFragment inlineFragment) {
+                collectFields(inlineFragment.getSelectionSet(), fragments, fields, visitedFragments);
+            } else if (selection instanceof FragmentSpread spread && visitedFragments.add(spread.getName())) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                if (fragment != null) {
+                    collectFields(fragment.getSelectionSet(), fragments, fields, visitedFragments);
+                }
+            }
+        }
+    }
+
+    private static WebGraphQlResponse reject(WebGraphQlRequest request, AdmissionRejectedException ex) {
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(ex.getMessage())
+                .errorType(ErrorClassification.errorClassification(ex.getCode()))
+                .extensions(Map.of("retryAfterSeconds", ex.getRetryAfterSeconds()))
+                .build();
+        ExecutionResult result = ExecutionResult.newExecutionResult().addError(error).build();
+
+        WebGraphQlResponse response = new WebGraphQlResponse(
+                new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result));
+        response.getResponseHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return response;
+    }
+}
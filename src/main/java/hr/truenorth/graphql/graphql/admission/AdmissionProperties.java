@@ -0,0 +1,46 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits applied by {@link AdmissionControlInterceptor} before a request reaches GraphQL execution.
+ *
+ * @param enabled                   turns admission control on or off
+ * @param clientKeyHeader           header identifying the client, only honoured from a trusted proxy
+ * @param trustedProxies            remote addresses (as reported by the server, e.g. 127.0.0.1) allowed to
+ *                                  name the client through clientKeyHeader; everyone else is keyed by address
+ * @param requestsPerSecond         token bucket refill rate per client
+ * @param burst                     token bucket capacity per client
+ * @param maxConcurrent             concurrent executions allowed per operation
+ * @param maxQueued                 requests allowed to wait for a free slot per operation
+ * @param maxQueueWait              how long a queued request waits before it is shed
+ * @param operationMaxConcurrent    per-operation overrides of maxConcurrent
+ */
+@ConfigurationProperties("app.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Client-Id") String clientKeyHeader,
+        @DefaultValue List<String> trustedProxies,
+        @DefaultValue("50") double requestsPerSecond,
+        @DefaultValue("100") int burst,
+        @DefaultValue("16") int maxConcurrent,
+        @DefaultValue("32") int maxQueued,
+        @DefaultValue("2s") Duration maxQueueWait,
+        Map<String, Integer> operationMaxConcurrent) {
+
+    public int maxConcurrentFor(String operation) {
+        if (operationMaxConcurrent == null) {
+            return maxConcurrent;
+        }
+        return operationMaxConcurrent.getOrDefault(operation, maxConcurrent);
+    }
+
+    public boolean hasOwnLimit(String operation) {
+        return operationMaxConcurrent != null && operationMaxConcurrent.containsKey(operation);
+    }
+}
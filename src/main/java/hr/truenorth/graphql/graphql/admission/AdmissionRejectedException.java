@@ -0,0 +1,23 @@
+package hr.truenorth.graphql.graphql.admission;
+
+/**
+ * Raised when a request is shed instead of executed.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final String code;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String code, String message, long retryAfterSeconds) {
+        super(message);
+        this.code = code;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,6 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import java.util.Map;
+
+public record AdmissionStats(int trackedClients, long rateLimited, Map<String, OperationStats> operations) {
+}
@@ -0,0 +1,21 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes queue depth, in-flight executions and rejection counters.
+ */
+@RestController
+public class AdmissionStatsController {
+    private final AdmissionControlInterceptor admissionControl;
+
+    public AdmissionStatsController(AdmissionControlInterceptor admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @GetMapping("/admin/admission")
+    public AdmissionStats admission() {
+        return admissionControl.stats();
+    }
+}
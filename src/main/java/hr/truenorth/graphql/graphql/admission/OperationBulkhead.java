@@ -0,0 +1,131 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrency for one operation, with a bounded wait queue in front of it.
+ *
+ * Waiting never blocks a thread: a queued request is a pending Mono that completes
+ * when a running execution releases its slot, or fails once maxWait has passed.
+ */
+class OperationBulkhead {
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    OperationBulkhead(int maxConcurrent, int maxQueued) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Completes once a slot is held. The caller must {@link #release()} it afterwards.
+     */
+    Mono<Void> acquire(String operation, Duration maxWait) {
+        return Mono.defer(() -> {
+            if (tryAcquireSlot()) {
+                admitted.increment();
+                return Mono.empty();
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejectedQueueFull.increment();
+                return Mono.error(new AdmissionRejectedException("OVERLOADED",
+                        "Too many pending executions of " + operation, 1));
+            }
+
+            Waiter waiter = new Waiter();
+            waiters.add(waiter);
+            drain();
+
+            return waiter.sink.asMono()
+                    .timeout(maxWait, Mono.defer(() -> {
+                        if (!waiter.abandon()) {
+                            // Granted a slot just as the wait expired, so run after all
+                            return Mono.<Void>empty();
+                        }
+                        rejectedTimeout.increment();
+                        return Mono.error(new AdmissionRejectedException("OVERLOADED",
+                                "Timed out waiting to execute " + operation, 1));
+                    }))
+                    .doOnSuccess(ignored -> admitted.increment())
+                    .doOnCancel(() -> {
+                        if (!waiter.abandon()) {
+                            release();
+                        }
+                    });
+        });
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    OperationStats stats() {
+        return new OperationStats(maxConcurrent, inFlight.get(), maxQueued, queued.get(),
+                admitted.sum(), rejectedQueueFull.sum(), rejectedTimeout.sum());
+    }
+
+    private boolean tryAcquireSlot() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquireSlot()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            if (!waiter.grant()) {
+                // Waiter gave up in the meantime, hand the slot to the next one
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private class Waiter {
+        private final Sinks.Empty<Void> sink = Sinks.empty();
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        boolean grant() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            sink.tryEmitEmpty();
+            return true;
+        }
+
+        boolean abandon() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            waiters.remove(this);
+            return true;
+        }
+    }
+}
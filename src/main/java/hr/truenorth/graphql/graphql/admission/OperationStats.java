@@ -0,0 +1,5 @@
+package hr.truenorth.graphql.graphql.admission;
+
+public record OperationStats(int maxConcurrent, int inFlight, int maxQueued, int queueDepth,
+                             long admitted, long rejectedQueueFull, long rejectedTimeout) {
+}
@@ -0,0 +1,59 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Classic token bucket: refills continuously at a fixed rate up to its capacity.
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(double capacity, double tokensPerSecond, LongSupplier nanoTime) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Seconds until the next token is available, rounded up.
+     */
+    synchronized long secondsUntilNextToken() {
+        refill();
+        double missing = Math.max(0, 1 - tokens);
+        return (long) Math.ceil(missing / (tokensPerNano * 1_000_000_000d));
+    }
+
+    /**
+     * True once the bucket has refilled completely, at which point it behaves exactly
+     * like a new one and can be dropped.
+     */
+    synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
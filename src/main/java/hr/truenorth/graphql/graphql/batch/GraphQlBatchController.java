@@ -0,0 +1,42 @@
+package hr.truenorth.graphql.graphql.batch;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The batch endpoint in the servlet stack, see {@link GraphQlBatchExecutor}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class GraphQlBatchController {
+    private final GraphQlBatchExecutor executor;
+
+    public GraphQlBatchController(GraphQlBatchExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostMapping(path = "${spring.graphql.path:/graphql}/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Map<String, Object>>> batch(@RequestBody List<Map<String, Object>> operations,
+                                                 @RequestHeader HttpHeaders headers,
+                                                 HttpServletRequest servletRequest) {
+        // Read now, later operations start on other threads
+        URI uri = ServletUriComponentsBuilder.fromRequest(servletRequest).build().toUri();
+        InetSocketAddress remoteAddress = new InetSocketAddress(
+                servletRequest.getRemoteAddr(), servletRequest.getRemotePort());
+        return executor.execute(operations, uri, headers, remoteAddress, servletRequest.getLocale());
+    }
+}
@@ -0,0 +1,174 @@
+package hr.truenorth.graphql.graphql.batch;
+
+import graphql.ParseAndValidate;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.validation.ValidationError;
+import org.dataloader.DataLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes several GraphQL operations sent in one POST as a JSON array.
+ *
+ * Every operation is parsed and validated before any of them runs, so a bad one
+ * rejects the whole batch with a 400 instead of failing it after earlier mutations
+ * were applied. Operations go through the regular WebGraphQlHandler, so every
+ * interceptor still applies.
+ *
+ * Consecutive queries run at the same time and share their DataLoaders: an author
+ * loaded by one of them is not fetched again by the others. A mutation waits for the
+ * queries before it and runs alone with its own DataLoaders, and the queries after it
+ * start over with empty ones, so none of them sees a value cached before the write.
+ * Responses come back in the order of the operations.
+ *
+ * Served by {@link GraphQlBatchController} in the servlet stack and by
+ * {@link ReactiveGraphQlBatchController} under the "reactive" profile.
+ */
+@Component
+public class GraphQlBatchExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(GraphQlBatchExecutor.class);
+    private static final int MAX_OPERATIONS = 20;
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final GraphQlSource graphQlSource;
+
+    public GraphQlBatchExecutor(WebGraphQlHandler graphQlHandler, GraphQlSource graphQlSource) {
+        this.graphQlHandler = graphQlHandler;
+        this.graphQlSource = graphQlSource;
+    }
+
+    /**
+     * Runs a batch sent with the given HTTP request details, which every operation
+     * sees as its own.
+     */
+    public Mono<List<Map<String, Object>>> execute(List<Map<String, Object>> operations, URI uri,
+                                                   HttpHeaders headers, InetSocketAddress remoteAddress,
+                                                   Locale locale) {
+        if (operations.isEmpty() || operations.size() > MAX_OPERATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + MAX_OPERATIONS + " operations");
+        }
+        logger.info("Executing GraphQL batch of {} operations", operations.size());
+
+        List<Segment> segments = segments(operations);
+
+        return Flux.fromIterable(segments)
+                .concatMap(segment -> {
+                    if (segment.mutation()) {
+                        return execute(segment.operations().get(0), null, uri, headers, remoteAddress, locale);
+                    }
+                    // Fresh DataLoaders for each run of queries, shared by all of them
+                    Map<String, DataLoader<?, ?>> sharedLoaders = new ConcurrentHashMap<>();
+                    return Flux.fromIterable(segment.operations())
+                            .flatMapSequential(graphQlRequest -> execute(graphQlRequest, sharedLoaders,
+                                    uri, headers, remoteAddress, locale));
+                })
+                .map(WebGraphQlResponse::toMap)
+                .collectList();
+    }
+
+    /**
+     * Checks every operation and splits them into runs of consecutive queries, with each
+     * mutation on its own.
+     */
+    private List<Segment> segments(List<Map<String, Object>> operations) {
+        List<Segment> segments = new ArrayList<>();
+        List<DefaultGraphQlRequest> queries = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            DefaultGraphQlRequest graphQlRequest = toGraphQlRequest(i, operations.get(i));
+            if (operationOf(i, graphQlRequest).getOperation() == OperationDefinition.Operation.MUTATION) {
+                if (!queries.isEmpty()) {
+                    segments.add(new Segment(queries, false));
+                    queries = new ArrayList<>();
+                }
+                segments.add(new Segment(List.of(graphQlRequest), true));
+            } else {
+                queries.add(graphQlRequest);
+            }
+        }
+        if (!queries.isEmpty()) {
+            segments.add(new Segment(queries, false));
+        }
+        return segments;
+    }
+
+    // Execution may block its thread, in the servlet stack always, so each operation gets its own
+    private Mono<WebGraphQlResponse> execute(DefaultGraphQlRequest graphQlRequest,
+                                             Map<String, DataLoader<?, ?>> sharedLoaders, URI uri,
+                                             HttpHeaders headers, InetSocketAddress remoteAddress, Locale locale) {
+        WebGraphQlRequest request = new WebGraphQlRequest(uri, headers, new LinkedMultiValueMap<>(),
+                remoteAddress, Map.of(), graphQlRequest, ObjectUtils.getIdentityHexString(graphQlRequest), locale);
+        if (sharedLoaders != null) {
+            request.configureExecutionInput((input, builder) -> builder
+                    .dataLoaderRegistry(new SharedDataLoaderRegistry(sharedLoaders))
+                    .build());
+        }
+        return Mono.defer(() -> graphQlHandler.handleRequest(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private OperationDefinition operationOf(int index, DefaultGraphQlRequest request) {
+        Document document;
+        try {
+            document = Parser.parse(request.getDocument());
+        } catch (InvalidSyntaxException ex) {
+            throw invalid(index, ex.getMessage());
+        }
+        List<ValidationError> errors = ParseAndValidate.validate(graphQlSource.schema(), document);
+        if (!errors.isEmpty()) {
+            throw invalid(index, errors.get(0).getMessage());
+        }
+        String operationName = request.getOperationName();
+        List<OperationDefinition> definitions = document.getDefinitionsOfType(OperationDefinition.class);
+        if (operationName == null && definitions.size() > 1) {
+            throw invalid(index, "operationName is required for a document with several operations");
+        }
+        return definitions.stream()
+                .filter(operation -> operationName == null || operationName.equals(operation.getName()))
+                .findFirst()
+                .orElseThrow(() -> invalid(index, "No operation named " + operationName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DefaultGraphQlRequest toGraphQlRequest(int index, Map<String, Object> operation) {
+        if (!(operation.get("query") instanceof String query) || query.isBlank()) {
+            throw invalid(index, "Every operation needs a \"query\"");
+        }
+        return new DefaultGraphQlRequest(query,
+                (String) operation.get("operationName"),
+                (Map<String, Object>) operation.get("variables"),
+                (Map<String, Object>) operation.get("extensions"));
+    }
+
+    private static ResponseStatusException invalid(int index, String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Operation " + index + ": " + reason);
+    }
+
+    private record Segment(List<DefaultGraphQlRequest> operations, boolean mutation) {
+    }
+}
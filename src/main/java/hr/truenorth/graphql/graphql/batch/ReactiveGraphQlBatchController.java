@@ -0,0 +1,35 @@
+package hr.truenorth.graphql.graphql.batch;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The batch endpoint under the "reactive" profile, see {@link GraphQlBatchExecutor}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGraphQlBatchController {
+    private final GraphQlBatchExecutor executor;
+
+    public ReactiveGraphQlBatchController(GraphQlBatchExecutor executor) {
+        this.executor = executor;
+    }
+
+    @PostMapping(path = "${spring.graphql.path:/graphql}/batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Map<String, Object>>> batch(@RequestBody List<Map<String, Object>> operations,
+                                                 ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        return executor.execute(operations, request.getURI(), request.getHeaders(), request.getRemoteAddress(),
+                exchange.getLocaleContext().getLocale());
+    }
+}
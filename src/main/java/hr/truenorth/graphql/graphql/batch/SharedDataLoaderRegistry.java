@@ -0,0 +1,26 @@
+package hr.truenorth.graphql.graphql.batch;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+
+import java.util.Map;
+
+/**
+ * Registry for one operation of a batch whose DataLoaders are shared with the other operations.
+ *
+ * Spring registers fresh DataLoaders for every execution. This registry keeps the first
+ * DataLoader registered under each name for the whole batch and hands that one out to
+ * later operations, so values loaded by one operation are cache hits for the next.
+ */
+class SharedDataLoaderRegistry extends DataLoaderRegistry {
+    private final Map<String, DataLoader<?, ?>> sharedLoaders;
+
+    SharedDataLoaderRegistry(Map<String, DataLoader<?, ?>> sharedLoaders) {
+        this.sharedLoaders = sharedLoaders;
+    }
+
+    @Override
+    public DataLoaderRegistry register(String key, DataLoader<?, ?> dataLoader) {
+        return super.register(key, sharedLoaders.computeIfAbsent(key, name -> dataLoader));
+    }
+}
@@ -0,0 +1,25 @@
+package hr.truenorth.graphql.graphql.config;
+
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.data.federation.FederationSchemaFactory;
+
+/**
+ * Builds the schema as an Apollo Federation subgraph, adding _service and _entities.
+ *
+ * Entities are resolved by the @EntityMapping methods in the controllers.
+ */
+@Configuration
+public class FederationConfig {
+
+    @Bean
+    public FederationSchemaFactory federationSchemaFactory() {
+        return new FederationSchemaFactory();
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer federationSchemaCustomizer(FederationSchemaFactory schemaFactory) {
+        return builder -> builder.schemaFactory(schemaFactory::createGraphQLSchema);
+    }
+}
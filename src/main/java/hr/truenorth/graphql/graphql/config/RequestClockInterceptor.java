@@ -0,0 +1,40 @@
+package hr.truenorth.graphql.graphql.config;
+
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Reads the clock once per request and stores the result in the GraphQL context.
+ *
+ * Every resolver of the same request sees the same "today", so computed fields
+ * like isRecent stay consistent and don't have to call LocalDate.now() per row.
+ */
+@Component
+public class RequestClockInterceptor implements WebGraphQlInterceptor {
+    public static final String REQUEST_DATE = "requestDate";
+    public static final String RECENT_CUTOFF = "recentCutoff";
+
+    private final Clock clock;
+
+    public RequestClockInterceptor(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        LocalDate requestDate = LocalDate.now(clock);
+        LocalDate recentCutoff = requestDate.minusDays(DisclosureService.RECENT_DAYS);
+        request.configureExecutionInput((input, builder) -> builder
+                .graphQLContext(Map.of(REQUEST_DATE, requestDate, RECENT_CUTOFF, recentCutoff))
+                .build());
+        return chain.next(request);
+    }
+}
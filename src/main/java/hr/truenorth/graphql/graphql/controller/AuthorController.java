@@ -1,55 +1,109 @@
 package hr.truenorth.graphql.graphql.controller;
 
+import graphql.schema.DataFetchingEnvironment;
 import hr.truenorth.graphql.graphql.model.Author;
 import hr.truenorth.graphql.graphql.model.Disclosure;
 import hr.truenorth.graphql.graphql.service.AuthorService;
 import hr.truenorth.graphql.graphql.service.DisclosureService;
+import hr.truenorth.graphql.graphql.shard.ShardClient;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.federation.EntityMapping;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
-import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class AuthorController {
     private final AuthorService authorService;
     private final DisclosureService disclosureService;
+    private final ShardRouter shards;
+    private final ShardClient shardClient;
 
-    public AuthorController(AuthorService authorService, DisclosureService disclosureService) {
+    public AuthorController(AuthorService authorService, DisclosureService disclosureService,
+                            BatchLoaderRegistry batchLoaderRegistry, ShardRouter shards, ShardClient shardClient) {
         this.authorService = authorService;
         this.disclosureService = disclosureService;
+        this.shards = shards;
+        this.shardClient = shardClient;
+
+        // Authors by id, shared by every field that points at an author (Disclosure.author,
+        // Comment.author, Query.author) so the same id is fetched once per request.
+        // Authors are replicated to every shard, so this never leaves the instance.
+        batchLoaderRegistry.forTypePair(String.class, Author.class)
+                .registerMappedBatchLoader((authorIds, environment) ->
+                        authorService.findByIdsReactive(List.copyOf(authorIds))
+                                .map(authors -> authors.stream()
+                                        .collect(java.util.stream.Collectors.toMap(Author::getId, author -> author))));
     }
 
     @QueryMapping
-    public Author author(@Argument String id) {
-        return authorService.findById(id).orElse(null);
+    public CompletableFuture<Author> author(@Argument String id, DataLoader<String, Author> authorLoader) {
+        return authorLoader.load(id);
     }
 
     @QueryMapping
-    public List<Author> authors() {
-        return authorService.findAll();
+    public Flux<Author> authors(DataLoader<String, Author> authorLoader) {
+        return authorService.findAllReactive()
+                .doOnNext(author -> authorLoader.prime(author.getId(), author));
+    }
+
+    // Federation reference resolver, one findByIds call for all Author representations
+    @EntityMapping(name = "Author")
+    public Mono<List<Object>> authorEntities(@Argument List<String> idList, DataFetchingEnvironment environment) {
+        return authorService.findByIdsReactive(idList.stream().distinct().toList())
+                .map(authors -> authors.stream()
+                        .collect(java.util.stream.Collectors.toMap(Author::getId, author -> author)))
+                .map(authors -> EntityResults.inRepresentationOrder("Author", idList, authors, environment));
     }
 
     @BatchMapping(typeName = "Author", field = "disclosures")
-    public Map<Author, List<Disclosure>> disclosures(List<Author> authors) {
+    public Flux<List<Disclosure>> disclosures(List<Author> authors) {
         List<String> authorIds = authors.stream()
                 .map(Author::getId)
                 .toList();
 
-        Map<String, List<Disclosure>> disclosuresMap = disclosureService.findByAuthorIds(authorIds);
-
-        return authors.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        author -> author,
-                        author -> disclosuresMap.getOrDefault(author.getId(), List.of())
-                ));
+        // An author's disclosures can sit on any shard, so every shard is asked for all authors
+        return shards.broadcast(
+                        () -> disclosureService.findByAuthorIdsReactive(authorIds),
+                        shard -> shardClient.findDisclosuresByAuthorIds(shard, authorIds))
+                .reduce(new HashMap<String, List<Disclosure>>(), (merged, part) -> {
+                    part.forEach((authorId, disclosures) ->
+                            merged.computeIfAbsent(authorId, id -> new ArrayList<>()).addAll(disclosures));
+                    return merged;
+                })
+                // A Flux result is matched to the authors by position
+                .flatMapIterable(disclosuresMap -> authorIds.stream()
+                        .map(authorId -> disclosuresMap.getOrDefault(authorId, List.of()))
+                        .toList());
     }
 
-    @SchemaMapping(typeName = "Author", field = "totalDisclosures")
-    public int totalDisclosures(Author author) {
-        return disclosureService.findByAuthorId(author.getId()).size();
+    @BatchMapping(typeName = "Author", field = "totalDisclosures")
+    public Flux<Integer> totalDisclosures(List<Author> authors) {
+        List<String> authorIds = authors.stream()
+                .map(Author::getId)
+                .toList();
+
+        // One call per shard for all authors, counts summed across shards
+        return shards.broadcast(
+                        () -> disclosureService.countByAuthorIdsReactive(authorIds),
+                        shard -> shardClient.countDisclosuresByAuthorIds(shard, authorIds))
+                .reduce(new HashMap<String, Integer>(), (merged, part) -> {
+                    part.forEach((authorId, count) -> merged.merge(authorId, count, Integer::sum));
+                    return merged;
+                })
+                .flatMapIterable(counts -> authorIds.stream()
+                        .map(authorId -> counts.getOrDefault(authorId, 0))
+                        .toList());
     }
 }
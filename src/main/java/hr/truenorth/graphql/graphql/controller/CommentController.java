@@ -1,39 +1,49 @@
 package hr.truenorth.graphql.graphql.controller;
 
+import graphql.schema.DataFetchingEnvironment;
 import hr.truenorth.graphql.graphql.model.Author;
 import hr.truenorth.graphql.graphql.model.Comment;
-import hr.truenorth.graphql.graphql.service.AuthorService;
-import org.springframework.graphql.data.method.annotation.BatchMapping;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.shard.ShardClient;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.federation.EntityMapping;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
-import java.util.stream.Collectors;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class CommentController {
-    private final AuthorService authorService;
-
-    public CommentController(AuthorService authorService) {
-        this.authorService = authorService;
+    private final CommentService commentService;
+    private final ShardRouter shards;
+    private final ShardClient shardClient;
+
+    public CommentController(CommentService commentService, ShardRouter shards, ShardClient shardClient) {
+        this.commentService = commentService;
+        this.shards = shards;
+        this.shardClient = shardClient;
     }
 
-    @BatchMapping(typeName = "Comment", field = "author")
-    public Map<Comment, Author> author(List<Comment> comments) {
-        List<String> authorIds = comments.stream()
-                .map(Comment::getAuthorId)
-                .distinct()
-                .toList();
-
-        List<Author> authors = authorService.findByIds(authorIds);
-
-        Map<String, Author> authorMap = authors.stream()
-                .collect(Collectors.toMap(Author::getId, author -> author));
+    // Federation reference resolver, one findByIds call per shard for all Comment representations.
+    // A comment id doesn't say which disclosure it belongs to, so every shard is asked.
+    @EntityMapping(name = "Comment")
+    public Mono<List<Object>> commentEntities(@Argument List<String> idList, DataFetchingEnvironment environment) {
+        List<String> ids = idList.stream().distinct().toList();
+        return shards.broadcast(
+                        () -> commentService.findByIdsReactive(ids),
+                        shard -> shardClient.findCommentsByIds(shard, ids))
+                .flatMapIterable(part -> part)
+                .collectMap(Comment::getId)
+                .map(comments -> EntityResults.inRepresentationOrder("Comment", idList, comments, environment));
+    }
 
-        return comments.stream()
-                .collect(Collectors.toMap(
-                        comment -> comment,
-                        comment -> authorMap.get(comment.getAuthorId())
-                ));
+    // Batched through the author DataLoader registered in AuthorController
+    @SchemaMapping(typeName = "Comment", field = "author")
+    public CompletableFuture<Author> author(Comment comment, DataLoader<String, Author> authorLoader) {
+        return authorLoader.load(comment.getAuthorId());
     }
 }
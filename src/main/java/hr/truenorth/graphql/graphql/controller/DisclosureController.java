@@ -1,93 +1,160 @@
 package hr.truenorth.graphql.graphql.controller;
 
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
 import hr.truenorth.graphql.graphql.input.CommentInput;
 import hr.truenorth.graphql.graphql.input.CreateDisclosureInput;
+import hr.truenorth.graphql.graphql.input.DisclosureFilter;
+import hr.truenorth.graphql.graphql.input.DisclosureOrder;
 import hr.truenorth.graphql.graphql.input.UpdateDisclosureInput;
 import hr.truenorth.graphql.graphql.model.Author;
 import hr.truenorth.graphql.graphql.model.Comment;
 import hr.truenorth.graphql.graphql.model.Disclosure;
-import hr.truenorth.graphql.graphql.service.AuthorService;
 import hr.truenorth.graphql.graphql.service.CommentService;
 import hr.truenorth.graphql.graphql.service.DisclosureService;
+import hr.truenorth.graphql.graphql.service.InvalidFilterException;
+import hr.truenorth.graphql.graphql.shard.ShardClient;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.federation.EntityMapping;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.ErrorType;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class DisclosureController {
     private final DisclosureService disclosureService;
-    private final AuthorService authorService;
     private final CommentService commentService;
+    private final ShardRouter shards;
+    private final ShardClient shardClient;
 
     public DisclosureController(DisclosureService disclosureService,
-                               AuthorService authorService,
-                               CommentService commentService) {
+                               CommentService commentService,
+                               ShardRouter shards,
+                               ShardClient shardClient) {
         this.disclosureService = disclosureService;
-        this.authorService = authorService;
         this.commentService = commentService;
+        this.shards = shards;
+        this.shardClient = shardClient;
     }
 
-    @QueryMapping
-    public Disclosure disclosure(@Argument String id) {
-        return disclosureService.findById(id).orElse(null);
+    @GraphQlExceptionHandler
+    public GraphQLError invalidFilter(InvalidFilterException ex, DataFetchingEnvironment environment) {
+        return GraphqlErrorBuilder.newError(environment)
+                .errorType(ErrorType.BAD_REQUEST)
+                .message(ex.getMessage())
+                .build();
     }
 
     @QueryMapping
-    public List<Disclosure> disclosures() {
-        return disclosureService.findAll();
+    public Mono<Disclosure> disclosure(@Argument String id) {
+        return shards.route(id,
+                () -> Mono.justOrEmpty(disclosureService.findById(id)),
+                shard -> shardClient.findDisclosuresByIds(shard, List.of(id))
+                        .mapNotNull(found -> found.isEmpty() ? null : found.get(0)));
     }
 
-    @BatchMapping(typeName = "Disclosure", field = "author")
-    public Map<Disclosure, Author> author(List<Disclosure> disclosures) {
-        List<String> authorIds = disclosures.stream()
-                .map(Disclosure::getAuthorId)
-                .distinct()
-                .toList();
+    // Every shard filters and sorts its own part, the parts are then merged in the same order
+    @QueryMapping
+    public Mono<List<Disclosure>> disclosures(@Argument DisclosureFilter filter, @Argument DisclosureOrder orderBy) {
+        DisclosureService.validate(filter);
+        Flux<Disclosure> merged = shards.broadcast(
+                        () -> Mono.fromCallable(() -> disclosureService.find(filter, orderBy)),
+                        shard -> shardClient.findDisclosures(shard, filter, orderBy))
+                .flatMapIterable(part -> part);
+        return orderBy != null && orderBy.getField() != null
+                ? merged.sort(DisclosureService.comparator(orderBy)).collectList()
+                : merged.collectList();
+    }
 
-        List<Author> authors = authorService.findByIds(authorIds);
+    @QueryMapping
+    public Mono<List<Disclosure>> recentDisclosures(@Argument Integer days, @ContextValue LocalDate requestDate) {
+        // An explicit days: null means the same as leaving the argument out
+        LocalDate cutoff = requestDate.minusDays(days != null ? days : DisclosureService.RECENT_DAYS);
+        return shards.broadcast(
+                        () -> Mono.fromCallable(() -> disclosureService.findPublishedSince(cutoff)),
+                        shard -> shardClient.findDisclosuresPublishedSince(shard, cutoff))
+                .flatMapIterable(part -> part)
+                .sort(Comparator.comparing(Disclosure::getPublishedDate).reversed())
+                .collectList();
+    }
 
-        Map<String, Author> authorMap = authors.stream()
-                .collect(java.util.stream.Collectors.toMap(Author::getId, author -> author));
+    // Federation reference resolver, one findByIds call per shard for all Disclosure representations
+    @EntityMapping(name = "Disclosure")
+    public Mono<List<Object>> disclosureEntities(@Argument List<String> idList, DataFetchingEnvironment environment) {
+        return shards.scatter(idList,
+                        disclosureService::findByIdsReactive,
+                        shardClient::findDisclosuresByIds)
+                .flatMapIterable(part -> part)
+                .collectMap(Disclosure::getId)
+                .map(disclosures -> EntityResults.inRepresentationOrder("Disclosure", idList, disclosures, environment));
+    }
 
-        return disclosures.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        disclosure -> disclosure,
-                        disclosure -> authorMap.get(disclosure.getAuthorId())
-                ));
+    // Batched through the author DataLoader registered in AuthorController
+    @SchemaMapping(typeName = "Disclosure", field = "author")
+    public CompletableFuture<Author> author(Disclosure disclosure, DataLoader<String, Author> authorLoader) {
+        return authorLoader.load(disclosure.getAuthorId());
     }
 
     @BatchMapping(typeName = "Disclosure", field = "comments")
-    public Map<Disclosure, List<Comment>> comments(List<Disclosure> disclosures) {
+    public Flux<List<Comment>> comments(List<Disclosure> disclosures) {
         List<String> disclosureIds = disclosures.stream()
                 .map(Disclosure::getId)
                 .toList();
 
-        Map<String, List<Comment>> commentsMap = commentService.findByDisclosureIds(disclosureIds);
-
-        return disclosures.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        disclosure -> disclosure,
-                        disclosure -> commentsMap.getOrDefault(disclosure.getId(), List.of())
-                ));
+        // Comments live on the shard of their disclosure, so each shard gets its own ids
+        return shards.scatter(disclosureIds,
+                        commentService::findByDisclosureIdsReactive,
+                        shardClient::findCommentsByDisclosureIds)
+                .reduce(new HashMap<String, List<Comment>>(), (merged, part) -> {
+                    merged.putAll(part);
+                    return merged;
+                })
+                // A Flux result is matched to the disclosures by position
+                .flatMapIterable(commentsMap -> disclosureIds.stream()
+                        .map(disclosureId -> commentsMap.getOrDefault(disclosureId, List.of()))
+                        .toList());
     }
 
-    @SchemaMapping(typeName = "Disclosure", field = "commentsCount")
-    public int commentsCount(Disclosure disclosure) {
-        return commentService.findByDisclosureId(disclosure.getId()).size();
+    @BatchMapping(typeName = "Disclosure", field = "commentsCount")
+    public Flux<Integer> commentsCount(List<Disclosure> disclosures) {
+        List<String> disclosureIds = disclosures.stream()
+                .map(Disclosure::getId)
+                .toList();
+
+        // One call per owning shard for all disclosures on it, only the counts come back
+        return shards.scatter(disclosureIds,
+                        commentService::countByDisclosureIdsReactive,
+                        shardClient::countCommentsByDisclosureIds)
+                .reduce(new HashMap<String, Integer>(), (merged, part) -> {
+                    merged.putAll(part);
+                    return merged;
+                })
+                .flatMapIterable(counts -> disclosureIds.stream()
+                        .map(disclosureId -> counts.getOrDefault(disclosureId, 0))
+                        .toList());
     }
 
     @SchemaMapping(typeName = "Disclosure", field = "isRecent")
-    public boolean isRecent(Disclosure disclosure) {
-        long daysSincePublished = ChronoUnit.DAYS.between(disclosure.getPublishedDate(), LocalDate.now());
-        return daysSincePublished <= 30;
+    public boolean isRecent(Disclosure disclosure, @ContextValue LocalDate recentCutoff) {
+        // Cutoff is computed once per request by RequestClockInterceptor
+        return !disclosure.getPublishedDate().isBefore(recentCutoff);
     }
 
     @MutationMapping
@@ -100,27 +167,37 @@ public class DisclosureController {
         );
     }
 
+    // Updates run on the shard that owns the disclosure
     @MutationMapping
-    public Disclosure updateDisclosure(@Argument String id, @Argument UpdateDisclosureInput input) {
-        return disclosureService.update(
-                id,
-                input.getTitle(),
-                input.getDescription(),
-                input.getSeverity(),
-                input.getStatus()
-        ).orElseThrow(() -> new RuntimeException("Disclosure not found: " + id));
+    public Mono<Disclosure> updateDisclosure(@Argument String id, @Argument UpdateDisclosureInput input) {
+        return shards.route(id,
+                () -> Mono.justOrEmpty(disclosureService.update(
+                        id,
+                        input.getTitle(),
+                        input.getDescription(),
+                        input.getSeverity(),
+                        input.getStatus()
+                )),
+                shard -> shardClient.updateDisclosure(shard, id, input))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Disclosure not found: " + id)));
     }
 
+    // Comments are stored next to their disclosure
     @MutationMapping
-    public Comment addComment(@Argument String disclosureId, @Argument CommentInput input) {
-        if (!disclosureService.findById(disclosureId).isPresent()) {
-            throw new RuntimeException("Disclosure not found: " + disclosureId);
-        }
-
-        return commentService.create(
-                disclosureId,
-                input.getContent(),
-                input.getAuthorId()
-        );
+    public Mono<Comment> addComment(@Argument String disclosureId, @Argument CommentInput input) {
+        return shards.route(disclosureId,
+                () -> Mono.fromCallable(() -> {
+                    if (!disclosureService.findById(disclosureId).isPresent()) {
+                        return null;
+                    }
+
+                    return commentService.create(
+                            disclosureId,
+                            input.getContent(),
+                            input.getAuthorId()
+                    );
+                }),
+                shard -> shardClient.addComment(shard, disclosureId, input))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Disclosure not found: " + disclosureId)));
     }
 }
@@ -0,0 +1,61 @@
+package hr.truenorth.graphql.graphql.controller;
+
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.ErrorType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Results of a batched @EntityMapping, in the order of its representations.
+ *
+ * A batch method answers for every representation of its type at once, so it can't fail
+ * just one of them by throwing. An id that didn't resolve becomes a null entity carrying
+ * its own NOT_FOUND error at its position in _entities instead.
+ */
+final class EntityResults {
+
+    private EntityResults() {
+    }
+
+    static <T> List<Object> inRepresentationOrder(String typename, List<String> ids, Map<String, T> found,
+                                                  DataFetchingEnvironment environment) {
+        List<Integer> positions = positionsOf(typename, environment);
+        List<Object> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            T entity = found.get(id);
+            if (entity != null) {
+                results.add(entity);
+                continue;
+            }
+            GraphqlErrorBuilder<?> error = GraphqlErrorBuilder.newError(environment)
+                    .errorType(ErrorType.NOT_FOUND)
+                    .message(typename + " not found: " + id)
+                    .extensions(Map.of("id", id));
+            if (i < positions.size()) {
+                error.path(environment.getExecutionStepInfo().getPath().segment(positions.get(i)));
+            }
+            results.add(DataFetcherResult.newResult().data(null).error(error.build()).build());
+        }
+        return results;
+    }
+
+    // Index in _entities of each representation of the type, the order the ids were collected in
+    private static List<Integer> positionsOf(String typename, DataFetchingEnvironment environment) {
+        List<Map<String, Object>> representations = environment.getArgument("representations");
+        List<Integer> positions = new ArrayList<>();
+        if (representations != null) {
+            for (int i = 0; i < representations.size(); i++) {
+                if (Objects.equals(typename, representations.get(i).get("__typename"))) {
+                    positions.add(i);
+                }
+            }
+        }
+        return positions;
+    }
+}
@@ -6,20 +6,23 @@ import hr.truenorth.graphql.graphql.model.Disclosure;
 import hr.truenorth.graphql.graphql.service.AuthorService;
 import hr.truenorth.graphql.graphql.service.CommentService;
 import hr.truenorth.graphql.graphql.service.DisclosureService;
+import hr.truenorth.graphql.graphql.shard.ShardClient;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 /**
  * N+1 Problem Demonstration Controller
  *
- * This controller intentionally does NOT use @BatchMapping to demonstrate
+ * This controller intentionally does NOT use @BatchMapping or a DataLoader to demonstrate
  * the N+1 problem. Use this for demo purposes to show the difference.
  *
  * Compare queries:
- * - disclosures { author { name } }        → Uses @BatchMapping (efficient)
+ * - disclosures { author { name } }        → Uses the author DataLoader (efficient)
  * - disclosuresNPlusOne { author { name } } → No batching (N+1 problem!)
  */
 @Controller
@@ -27,13 +30,19 @@ public class N1DemoController {
     private final DisclosureService disclosureService;
     private final AuthorService authorService;
     private final CommentService commentService;
+    private final ShardRouter shards;
+    private final ShardClient shardClient;
 
     public N1DemoController(DisclosureService disclosureService,
                             AuthorService authorService,
-                            CommentService commentService) {
+                            CommentService commentService,
+                            ShardRouter shards,
+                            ShardClient shardClient) {
         this.disclosureService = disclosureService;
         this.authorService = authorService;
         this.commentService = commentService;
+        this.shards = shards;
+        this.shardClient = shardClient;
     }
 
     /**
@@ -41,8 +50,12 @@ public class N1DemoController {
      * Each disclosure will trigger a separate database call for its author!
      */
     @QueryMapping
-    public List<Disclosure> disclosuresNPlusOne() {
-        return disclosureService.findAll();
+    public Mono<List<Disclosure>> disclosuresNPlusOne() {
+        return shards.broadcast(
+                        () -> Mono.fromCallable(disclosureService::findAll),
+                        shard -> shardClient.findDisclosures(shard, null, null))
+                .flatMapIterable(part -> part)
+                .collectList();
     }
 
     /**
@@ -50,18 +63,21 @@ public class N1DemoController {
      * If you have 100 disclosures, this method is called 100 times.
      */
     @SchemaMapping(typeName = "DisclosureNPlusOne", field = "author")
-    public Author authorNPlusOne(Disclosure disclosure) {
+    public Mono<Author> authorNPlusOne(Disclosure disclosure) {
         // This is called once per disclosure - causing N+1 problem!
-        return authorService.findById(disclosure.getAuthorId())
-                .orElse(null);
+        return authorService.findByIdReactive(disclosure.getAuthorId());
     }
 
     /**
      * This resolver is also called once PER disclosure
      */
     @SchemaMapping(typeName = "DisclosureNPlusOne", field = "comments")
-    public List<Comment> commentsNPlusOne(Disclosure disclosure) {
+    public Mono<List<Comment>> commentsNPlusOne(Disclosure disclosure) {
         // Another N+1 problem - called once per disclosure
-        return commentService.findByDisclosureId(disclosure.getId());
+        String id = disclosure.getId();
+        return shards.route(id,
+                () -> commentService.findByDisclosureIdReactive(id),
+                shard -> shardClient.findCommentsByDisclosureIds(shard, List.of(id))
+                        .map(comments -> comments.getOrDefault(id, List.of())));
     }
 }
@@ -0,0 +1,54 @@
+package hr.truenorth.graphql.graphql.input;
+
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+
+import java.util.List;
+
+public class DisclosureFilter {
+    private List<Severity> severityIn;
+    private List<DisclosureStatus> statusIn;
+    private String authorId;
+    private String publishedFrom;
+    private String publishedTo;
+
+    public List<Severity> getSeverityIn() {
+        return severityIn;
+    }
+
+    public void setSeverityIn(List<Severity> severityIn) {
+        this.severityIn = severityIn;
+    }
+
+    public List<DisclosureStatus> getStatusIn() {
+        return statusIn;
+    }
+
+    public void setStatusIn(List<DisclosureStatus> statusIn) {
+        this.statusIn = statusIn;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+
+    public String getPublishedFrom() {
+        return publishedFrom;
+    }
+
+    public void setPublishedFrom(String publishedFrom) {
+        this.publishedFrom = publishedFrom;
+    }
+
+    public String getPublishedTo() {
+        return publishedTo;
+    }
+
+    public void setPublishedTo(String publishedTo) {
+        this.publishedTo = publishedTo;
+    }
+}
@@ -0,0 +1,22 @@
+package hr.truenorth.graphql.graphql.input;
+
+public class DisclosureOrder {
+    private DisclosureOrderField field;
+    private SortDirection direction = SortDirection.ASC;
+
+    public DisclosureOrderField getField() {
+        return field;
+    }
+
+    public void setField(DisclosureOrderField field) {
+        this.field = field;
+    }
+
+    public SortDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(SortDirection direction) {
+        this.direction = direction;
+    }
+}
@@ -0,0 +1,7 @@
+package hr.truenorth.graphql.graphql.input;
+
+public enum DisclosureOrderField {
+    PUBLISHED_DATE,
+    SEVERITY,
+    TITLE
+}
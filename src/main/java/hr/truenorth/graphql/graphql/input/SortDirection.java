@@ -0,0 +1,6 @@
+package hr.truenorth.graphql.graphql.input;
+
+public enum SortDirection {
+    ASC,
+    DESC
+}
@@ -0,0 +1,41 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import graphql.execution.ResultPath;
+import graphql.execution.instrumentation.ExecuteObjectInstrumentationContext;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionStrategyParameters;
+import hr.truenorth.graphql.graphql.model.Author;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Records the id of the Author or Disclosure each result object was resolved from,
+ * keyed by its path in the result.
+ *
+ * This lets {@link ResponseCacheInterceptor} find the cached fragment for an object such
+ * as {@code author { name }} that doesn't select its id. Only requests the interceptor
+ * put a map in the GraphQL context for are recorded.
+ */
+@Component
+public class EntitySourceInstrumentation implements Instrumentation {
+    static final String SOURCES = EntitySourceInstrumentation.class.getName() + ".sources";
+
+    @Override
+    public ExecuteObjectInstrumentationContext beginExecuteObject(InstrumentationExecutionStrategyParameters parameters,
+                                                                  InstrumentationState state) {
+        Object source = parameters.getExecutionStrategyParameters().getSource();
+        String id = source instanceof Author author ? author.getId()
+                : source instanceof Disclosure disclosure ? disclosure.getId()
+                : null;
+        if (id != null) {
+            Map<ResultPath, String> sources = parameters.getExecutionContext().getGraphQLContext().get(SOURCES);
+            if (sources != null) {
+                sources.put(parameters.getExecutionStrategyParameters().getPath(), id);
+            }
+        }
+        return ExecuteObjectInstrumentationContext.NOOP;
+    }
+}
@@ -0,0 +1,64 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-serialized JSON per entity version and selected field set.
+ *
+ * An entry remembers the version it was encoded from and is only reused while the
+ * entity still has that version, so an update makes every rendering of the entity
+ * stale at once. Stale entries are overwritten in place, which keeps the cache bounded
+ * by entities times distinct field sets.
+ */
+class FragmentCache {
+    private final ObjectMapper objectMapper;
+    private final int maxFragments;
+    private final Map<Key, Fragment> fragments = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FragmentCache(ObjectMapper objectMapper, int maxFragments) {
+        this.objectMapper = objectMapper;
+        this.maxFragments = maxFragments;
+    }
+
+    /**
+     * The encoded form of {@code value}, or {@code null} if it can't be encoded.
+     */
+    RawValue get(SplicePlan.Shape shape, String id, long version, Map<?, ?> value) {
+        Key key = new Key(shape.typeName(), id, shape.selectionKey());
+        Fragment cached = fragments.get(key);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.json();
+        }
+
+        misses.increment();
+        RawValue json;
+        try {
+            json = new RawValue(objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+        if (cached != null || fragments.size() < maxFragments) {
+            fragments.put(key, new Fragment(version, json));
+        }
+        return json;
+    }
+
+    ResponseCacheStats stats() {
+        return new ResponseCacheStats(fragments.size(), hits.sum(), misses.sum());
+    }
+
+    private record Key(String typeName, String id, String selectionKey) {
+    }
+
+    private record Fragment(long version, RawValue json) {
+    }
+}
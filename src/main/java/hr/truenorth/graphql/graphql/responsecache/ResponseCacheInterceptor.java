@@ -0,0 +1,171 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import graphql.execution.ResultPath;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Splices pre-serialized JSON for hot entities into the response data.
+ *
+ * Objects that select only stored scalar fields of an Author or Disclosure are replaced
+ * by a {@link RawValue}, which Jackson writes out as-is, so the same few authors aren't
+ * re-encoded in every response. Where such objects sit in the result is worked out once
+ * per document from the schema and cached as a {@link SplicePlan}. Which entity each of
+ * them came from is recorded during execution by {@link EntitySourceInstrumentation}.
+ *
+ * The disclosure modification count is read before execution. An entity modified after
+ * that may have been resolved before or after the change, so it is left as resolved
+ * and not cached.
+ */
+@Component
+public class ResponseCacheInterceptor implements WebGraphQlInterceptor {
+    private final ResponseCacheProperties properties;
+    private final GraphQlSource graphQlSource;
+    private final DisclosureService disclosureService;
+    private final ShardRouter shards;
+    private final FragmentCache fragments;
+    private final Map<PlanKey, Optional<SplicePlan>> plans = new ConcurrentHashMap<>();
+
+    public ResponseCacheInterceptor(ResponseCacheProperties properties, GraphQlSource graphQlSource,
+                                    DisclosureService disclosureService, ShardRouter shards, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.graphQlSource = graphQlSource;
+        this.disclosureService = disclosureService;
+        this.shards = shards;
+        this.fragments = new FragmentCache(objectMapper, properties.maxFragments());
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!properties.enabled()) {
+            return chain.next(request);
+        }
+
+        long startedAt = disclosureService.modificationCount();
+        Map<ResultPath, String> sources = new ConcurrentHashMap<>();
+        request.configureExecutionInput((input, builder) -> builder
+                .graphQLContext(Map.of(EntitySourceInstrumentation.SOURCES, sources))
+                .build());
+        return chain.next(request).map(response -> {
+            if (!(response.getData() instanceof Map<?, ?> data)) {
+                return response;
+            }
+            SplicePlan plan = planFor(request);
+            if (plan == null) {
+                return response;
+            }
+            Object spliced = splice(data, plan, ResultPath.rootPath(), sources, startedAt);
+            return spliced == data ? response : response.transform(builder -> builder.data(spliced));
+        });
+    }
+
+    public ResponseCacheStats stats() {
+        return fragments.stats();
+    }
+
+    private SplicePlan planFor(WebGraphQlRequest request) {
+        PlanKey key = new PlanKey(request.getDocument(), request.getOperationName());
+        Optional<SplicePlan> plan = plans.get(key);
+        if (plan == null) {
+            try {
+                plan = Optional.ofNullable(SplicePlan.of(graphQlSource.schema(),
+                        Parser.parse(request.getDocument()), request.getOperationName()));
+            } catch (InvalidSyntaxException ex) {
+                plan = Optional.empty();
+            }
+            // Documents come from clients, so stop remembering new ones once full
+            if (plans.size() < properties.maxPlans()) {
+                plans.put(key, plan);
+            }
+        }
+        return plan.orElse(null);
+    }
+
+    /**
+     * Returns {@code value} itself when nothing below it changed, otherwise a copy of the
+     * containers along the way; the result data from graphql-java isn't modified.
+     */
+    private Object splice(Object value, SplicePlan plan, ResultPath path, Map<ResultPath, String> sources,
+                          long startedAt) {
+        if (value instanceof List<?> list) {
+            List<Object> copy = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object element = list.get(i);
+                Object spliced = splice(element, plan, path.segment(i), sources, startedAt);
+                if (spliced != element && copy == null) {
+                    copy = new ArrayList<>(list);
+                }
+                if (copy != null) {
+                    copy.set(i, spliced);
+                }
+            }
+            return copy != null ? copy : list;
+        }
+        if (!(value instanceof Map<?, ?> object)) {
+            return value;
+        }
+
+        if (plan.shape() != null) {
+            RawValue json = fragmentFor(plan.shape(), object, sources.get(path), startedAt);
+            if (json != null) {
+                return json;
+            }
+        }
+
+        Map<Object, Object> copy = null;
+        for (Map.Entry<String, SplicePlan> child : plan.children().entrySet()) {
+            Object field = object.get(child.getKey());
+            if (field == null) {
+                continue;
+            }
+            Object spliced = splice(field, child.getValue(), path.segment(child.getKey()), sources, startedAt);
+            if (spliced != field) {
+                if (copy == null) {
+                    copy = new LinkedHashMap<>(object);
+                }
+                copy.put(child.getKey(), spliced);
+            }
+        }
+        return copy != null ? copy : object;
+    }
+
+    private RawValue fragmentFor(SplicePlan.Shape shape, Map<?, ?> object, String id, long startedAt) {
+        if (id == null) {
+            return null;
+        }
+        long version = versionOf(shape.typeName(), id);
+        if (version > startedAt) {
+            return null;
+        }
+        return fragments.get(shape, id, version, object);
+    }
+
+    // Authors have no update path, so only disclosures change after they are created.
+    // Updates to another shard's disclosures aren't seen here, so those are never cached.
+    private long versionOf(String typeName, String id) {
+        if (!typeName.equals("Disclosure")) {
+            return 0;
+        }
+        return shards.isLocal(id) ? disclosureService.version(id) : Long.MAX_VALUE;
+    }
+
+    private record PlanKey(String document, String operationName) {
+    }
+}
@@ -0,0 +1,18 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for {@link ResponseCacheInterceptor}.
+ *
+ * @param enabled       turns splicing of pre-serialized entity fragments on or off
+ * @param maxFragments  cached fragments, one per entity and selected field set
+ * @param maxPlans      cached splice plans, one per document and operation name
+ */
+@ConfigurationProperties("app.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int maxFragments,
+        @DefaultValue("1000") int maxPlans) {
+}
@@ -0,0 +1,4 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+public record ResponseCacheStats(int fragments, long hits, long misses) {
+}
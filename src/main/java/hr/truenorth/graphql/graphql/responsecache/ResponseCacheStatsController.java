@@ -0,0 +1,21 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes cached fragment count and hit/miss counters.
+ */
+@RestController
+public class ResponseCacheStatsController {
+    private final ResponseCacheInterceptor responseCache;
+
+    public ResponseCacheStatsController(ResponseCacheInterceptor responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping("/admin/response-cache")
+    public ResponseCacheStats responseCache() {
+        return responseCache.stats();
+    }
+}
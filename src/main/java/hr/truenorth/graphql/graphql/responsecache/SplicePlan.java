@@ -0,0 +1,174 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Where in the result of one operation an entity fragment can be spliced in.
+ *
+ * The plan mirrors the result tree, keyed by response key. A node gets a {@link Shape}
+ * when its object selects only stored scalar fields of a cached type, so the whole
+ * object can be replaced by its pre-serialized JSON. The id doesn't have to be selected:
+ * {@link EntitySourceInstrumentation} records which entity each object was resolved
+ * from. Branches that lead to no such object are left out, so the walk over the data
+ * stays short.
+ */
+record SplicePlan(Shape shape, Map<String, SplicePlan> children) {
+
+    // Fields whose value comes straight from the stored entity. Computed fields such as
+    // Disclosure.isRecent depend on the request and are never cached.
+    static final Map<String, Set<String>> CACHEABLE_FIELDS = Map.of(
+            "Author", Set.of("id", "name", "email"),
+            "Disclosure", Set.of("id", "title", "description", "publishedDate", "severity", "status"));
+
+    private static final String TYPENAME = "__typename";
+
+    /**
+     * Cached object shape: the type and a key that identifies the selected fields and
+     * their aliases.
+     */
+    record Shape(String typeName, String selectionKey) {
+    }
+
+    /**
+     * Plan for the named operation, or {@code null} if nothing in it can be spliced.
+     */
+    static SplicePlan of(GraphQLSchema schema, Document document, String operationName) {
+        List<OperationDefinition> operations = document.getDefinitionsOfType(OperationDefinition.class);
+        OperationDefinition operation = operations.stream()
+                .filter(op -> operationName == null ? operations.size() == 1 : operationName.equals(op.getName()))
+                .findFirst()
+                .orElse(null);
+        if (operation == null) {
+            return null;
+        }
+        GraphQLObjectType rootType = switch (operation.getOperation()) {
+            case QUERY -> schema.getQueryType();
+            case MUTATION -> schema.getMutationType();
+            default -> null;
+        };
+        if (rootType == null) {
+            return null;
+        }
+        Map<String, FragmentDefinition> fragments = document.getDefinitionsOfType(FragmentDefinition.class).stream()
+                .collect(Collectors.toMap(FragmentDefinition::getName, fragment -> fragment, (a, b) -> a));
+        return new Builder(schema, fragments).build(rootType, List.of(operation.getSelectionSet()));
+    }
+
+    private static final class Builder {
+        private final GraphQLSchema schema;
+        private final Map<String, FragmentDefinition> fragments;
+
+        private Builder(GraphQLSchema schema, Map<String, FragmentDefinition> fragments) {
+            this.schema = schema;
+            this.fragments = fragments;
+        }
+
+        SplicePlan build(GraphQLObjectType type, List<SelectionSet> selectionSets) {
+            Map<String, List<Field>> fieldsByKey = new LinkedHashMap<>();
+            boolean conditional = false;
+            for (SelectionSet selectionSet : selectionSets) {
+                conditional |= collect(type, selectionSet, fieldsByKey);
+            }
+
+            Shape shape = conditional ? null : shape(type.getName(), fieldsByKey);
+
+            Map<String, SplicePlan> children = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Field>> entry : fieldsByKey.entrySet()) {
+                Field field = entry.getValue().get(0);
+                GraphQLFieldDefinition definition = type.getFieldDefinition(field.getName());
+                if (definition == null) {
+                    continue;
+                }
+                GraphQLType fieldType = GraphQLTypeUtil.unwrapAll(definition.getType());
+                if (fieldType instanceof GraphQLObjectType objectType) {
+                    SplicePlan child = build(objectType, entry.getValue().stream()
+                            .map(Field::getSelectionSet)
+                            .filter(selectionSet -> selectionSet != null)
+                            .toList());
+                    if (child != null) {
+                        children.put(entry.getKey(), child);
+                    }
+                }
+            }
+
+            if (shape == null && children.isEmpty()) {
+                return null;
+            }
+            return new SplicePlan(shape, Map.copyOf(children));
+        }
+
+        /**
+         * Merges the fields of a selection set into {@code fieldsByKey}, following fragments
+         * that apply to the type. Returns whether any selection depends on @skip/@include or
+         * on an abstract type condition, in which case the field set isn't fixed.
+         */
+        private boolean collect(GraphQLObjectType type, SelectionSet selectionSet, Map<String, List<Field>> fieldsByKey) {
+            boolean conditional = false;
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (selection instanceof Field field) {
+                    conditional |= !field.getDirectives().isEmpty();
+                    String key = field.getAlias() != null ? field.getAlias() : field.getName();
+                    fieldsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(field);
+                } else if (selection instanceof InlineFragment inline) {
+                    conditional |= !inline.getDirectives().isEmpty();
+                    String condition = inline.getTypeCondition() != null ? inline.getTypeCondition().getName() : null;
+                    if (applies(type, condition)) {
+                        conditional |= condition != null && !condition.equals(type.getName());
+                        conditional |= collect(type, inline.getSelectionSet(), fieldsByKey);
+                    }
+                } else if (selection instanceof FragmentSpread spread) {
+                    conditional |= !spread.getDirectives().isEmpty();
+                    FragmentDefinition fragment = fragments.get(spread.getName());
+                    if (fragment != null && applies(type, fragment.getTypeCondition().getName())) {
+                        conditional |= !fragment.getTypeCondition().getName().equals(type.getName());
+                        conditional |= collect(type, fragment.getSelectionSet(), fieldsByKey);
+                    }
+                }
+            }
+            return conditional;
+        }
+
+        // A condition on another object type never matches; abstract types are followed
+        // but make the field set conditional.
+        private boolean applies(GraphQLObjectType type, String condition) {
+            return condition == null
+                    || condition.equals(type.getName())
+                    || !(schema.getType(condition) instanceof GraphQLObjectType);
+        }
+
+        private static Shape shape(String typeName, Map<String, List<Field>> fieldsByKey) {
+            Set<String> cacheable = CACHEABLE_FIELDS.get(typeName);
+            if (cacheable == null) {
+                return null;
+            }
+            List<String> selection = new ArrayList<>();
+            for (Map.Entry<String, List<Field>> entry : fieldsByKey.entrySet()) {
+                String name = entry.getValue().get(0).getName();
+                if (!name.equals(TYPENAME) && !cacheable.contains(name)) {
+                    return null;
+                }
+                selection.add(entry.getKey() + ":" + name);
+            }
+            return selection.isEmpty() ? null : new Shape(typeName, String.join(",", selection));
+        }
+    }
+}
@@ -4,18 +4,26 @@ import hr.truenorth.graphql.graphql.model.Author;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class AuthorService {
     private static final Logger logger = LoggerFactory.getLogger(AuthorService.class);
+    private static final Duration LATENCY = Duration.ofMillis(100);
     private final Map<String, Author> authors = new ConcurrentHashMap<>();
+    private final AtomicInteger idCounter = new AtomicInteger(4);
+    private final SimulatedLatency latency;
 
-    public AuthorService() {
+    public AuthorService(SimulatedLatency latency) {
+        this.latency = latency;
         initializeSampleData();
     }
 
@@ -34,6 +42,34 @@ public class AuthorService {
     public List<Author> findByIds(List<String> ids) {
         logger.info("AuthorService.findByIds called for {} authors (BATCHED)", ids.size());
         simulateLatency();
+        return lookup(ids);
+    }
+
+    public Mono<Author> findByIdReactive(String id) {
+        logger.info("AuthorService.findByIdReactive called for id: {}", id);
+        return latency.delay(LATENCY, () -> authors.get(id));
+    }
+
+    public Flux<Author> findAllReactive() {
+        logger.info("AuthorService.findAllReactive called");
+        return latency.delay(LATENCY, () -> List.copyOf(authors.values()))
+                .flatMapIterable(all -> all);
+    }
+
+    public Mono<List<Author>> findByIdsReactive(List<String> ids) {
+        logger.info("AuthorService.findByIdsReactive called for {} authors (BATCHED)", ids.size());
+        return latency.delay(LATENCY, () -> lookup(ids));
+    }
+
+    public Author create(String name, String email) {
+        String id = "A" + idCounter.getAndIncrement();
+        Author author = new Author(id, name, email);
+        authors.put(id, author);
+        logger.info("Created author: {}", id);
+        return author;
+    }
+
+    private List<Author> lookup(List<String> ids) {
         return ids.stream()
                 .map(authors::get)
                 .filter(author -> author != null)
@@ -41,11 +77,7 @@ public class AuthorService {
     }
 
     private void simulateLatency() {
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        latency.block(LATENCY);
     }
 
     private void initializeSampleData() {
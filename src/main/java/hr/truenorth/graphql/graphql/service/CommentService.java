@@ -1,25 +1,39 @@
 package hr.truenorth.graphql.graphql.service;
 
 import hr.truenorth.graphql.graphql.model.Comment;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import hr.truenorth.graphql.graphql.store.CommentStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class CommentService {
     private static final Logger logger = LoggerFactory.getLogger(CommentService.class);
-    private final Map<String, Comment> comments = new ConcurrentHashMap<>();
-    private final AtomicInteger idCounter = new AtomicInteger(4);
+    private static final Duration LATENCY = Duration.ofMillis(50);
+    private final CommentStore comments;
+    private final AtomicInteger idCounter;
+    private final SimulatedLatency latency;
+    private final ShardRouter shards;
+    private final Clock clock;
 
-    public CommentService() {
+    public CommentService(CommentStore comments, SimulatedLatency latency, ShardRouter shards, Clock clock) {
+        this.comments = comments;
+        this.latency = latency;
+        this.shards = shards;
+        this.clock = clock;
+        // Comments live with their disclosure; striding only keeps ids unique across shards
+        this.idCounter = new AtomicInteger(shards.firstOwnedId(ShardRouter.FIRST_GENERATED_ID));
         initializeSampleData();
     }
 
@@ -28,50 +42,83 @@ public class CommentService {
         return Optional.ofNullable(comments.get(id));
     }
 
+    public List<Comment> findByIds(List<String> ids) {
+        logger.info("CommentService.findByIds called for {} comments (BATCHED)", ids.size());
+        simulateLatency();
+        return lookup(ids);
+    }
+
+    public Mono<List<Comment>> findByIdsReactive(List<String> ids) {
+        logger.info("CommentService.findByIdsReactive called for {} comments (BATCHED)", ids.size());
+        return latency.delay(LATENCY, () -> lookup(ids));
+    }
+
     public List<Comment> findByDisclosureId(String disclosureId) {
         logger.info("CommentService.findByDisclosureId called for disclosure: {}", disclosureId);
         simulateLatency();
-        return comments.values().stream()
-                .filter(comment -> comment.getDisclosureId().equals(disclosureId))
-                .toList();
+        return lookupByDisclosureId(disclosureId);
     }
 
     public Map<String, List<Comment>> findByDisclosureIds(List<String> disclosureIds) {
         logger.info("CommentService.findByDisclosureIds called for {} disclosures (BATCHED)", disclosureIds.size());
         simulateLatency();
+        return lookupByDisclosureIds(disclosureIds);
+    }
 
-        Map<String, List<Comment>> result = new ConcurrentHashMap<>();
-        for (String disclosureId : disclosureIds) {
-            List<Comment> disclosureComments = comments.values().stream()
-                    .filter(comment -> comment.getDisclosureId().equals(disclosureId))
-                    .toList();
-            result.put(disclosureId, disclosureComments);
-        }
-        return result;
+    public Mono<List<Comment>> findByDisclosureIdReactive(String disclosureId) {
+        logger.info("CommentService.findByDisclosureIdReactive called for disclosure: {}", disclosureId);
+        return latency.delay(LATENCY, () -> lookupByDisclosureId(disclosureId));
+    }
+
+    public Mono<Map<String, List<Comment>>> findByDisclosureIdsReactive(List<String> disclosureIds) {
+        logger.info("CommentService.findByDisclosureIdsReactive called for {} disclosures (BATCHED)", disclosureIds.size());
+        return latency.delay(LATENCY, () -> lookupByDisclosureIds(disclosureIds));
+    }
+
+    public Mono<Map<String, Integer>> countByDisclosureIdsReactive(List<String> disclosureIds) {
+        logger.info("CommentService.countByDisclosureIdsReactive called for {} disclosures (BATCHED)", disclosureIds.size());
+        return latency.delay(LATENCY, () -> comments.countByDisclosureIds(disclosureIds));
     }
 
     public Comment create(String disclosureId, String content, String authorId) {
-        String id = "C" + idCounter.getAndIncrement();
-        Comment comment = new Comment(id, content, LocalDateTime.now(), authorId, disclosureId);
-        comments.put(id, comment);
+        String id = "C" + idCounter.getAndAdd(shards.count());
+        Comment comment = new Comment(id, content, LocalDateTime.now(clock), authorId, disclosureId);
+        comments.put(comment);
         logger.info("Created comment: {}", id);
         return comment;
     }
 
-    private void simulateLatency() {
-        try {
-            Thread.sleep(50);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private List<Comment> lookup(List<String> ids) {
+        return ids.stream()
+                .map(comments::get)
+                .filter(comment -> comment != null)
+                .toList();
+    }
+
+    private List<Comment> lookupByDisclosureId(String disclosureId) {
+        return comments.findByDisclosureIds(List.of(disclosureId)).getOrDefault(disclosureId, List.of());
+    }
+
+    private Map<String, List<Comment>> lookupByDisclosureIds(List<String> disclosureIds) {
+        return comments.findByDisclosureIds(disclosureIds);
+    }
+
+    private void storeIfOwned(Comment comment) {
+        if (shards.isLocal(comment.getDisclosureId())) {
+            comments.put(comment);
         }
     }
 
+    private void simulateLatency() {
+        latency.block(LATENCY);
+    }
+
     private void initializeSampleData() {
-        comments.put("C1", new Comment("C1", "This is a critical issue that needs immediate attention!",
-                LocalDateTime.now().minusDays(2), "A2", "1"));
-        comments.put("C2", new Comment("C2", "Has this been fixed in the latest version?",
-                LocalDateTime.now().minusDays(1), "A3", "1"));
-        comments.put("C3", new Comment("C3", "We need to implement proper input validation.",
-                LocalDateTime.now().minusHours(5), "A1", "2"));
+        storeIfOwned(new Comment("C1", "This is a critical issue that needs immediate attention!",
+                LocalDateTime.now(clock).minusDays(2), "A2", "1"));
+        storeIfOwned(new Comment("C2", "Has this been fixed in the latest version?",
+                LocalDateTime.now(clock).minusDays(1), "A3", "1"));
+        storeIfOwned(new Comment("C3", "We need to implement proper input validation.",
+                LocalDateTime.now(clock).minusHours(5), "A1", "2"));
     }
 }
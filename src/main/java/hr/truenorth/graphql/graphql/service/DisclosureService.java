@@ -1,26 +1,61 @@
 package hr.truenorth.graphql.graphql.service;
 
+import hr.truenorth.graphql.graphql.input.DisclosureFilter;
+import hr.truenorth.graphql.graphql.input.DisclosureOrder;
+import hr.truenorth.graphql.graphql.input.SortDirection;
 import hr.truenorth.graphql.graphql.model.Disclosure;
 import hr.truenorth.graphql.graphql.model.DisclosureStatus;
 import hr.truenorth.graphql.graphql.model.Severity;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import hr.truenorth.graphql.graphql.store.DisclosureBucket;
+import hr.truenorth.graphql.graphql.store.DisclosureStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DisclosureService {
+    public static final int RECENT_DAYS = 30;
+
     private static final Logger logger = LoggerFactory.getLogger(DisclosureService.class);
-    private final Map<String, Disclosure> disclosures = new ConcurrentHashMap<>();
-    private final AtomicInteger idCounter = new AtomicInteger(4);
+    private static final Duration LATENCY = Duration.ofMillis(100);
+    // Holds the secondary indexes too, in the store's own layout
+    private final DisclosureStore disclosures;
+    private final AtomicInteger idCounter;
+    // Every update takes the next modification number as the disclosure's version, so
+    // anything derived from a disclosure can tell whether it has changed since
+    private final AtomicLong modifications = new AtomicLong();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final SimulatedLatency latency;
+    private final ShardRouter shards;
+    private final Clock clock;
 
-    public DisclosureService() {
+    public DisclosureService(DisclosureStore disclosures, SimulatedLatency latency, ShardRouter shards, Clock clock) {
+        this.disclosures = disclosures;
+        this.latency = latency;
+        this.shards = shards;
+        this.clock = clock;
+        // Only ids this shard owns, so a new disclosure always lives where it was created
+        this.idCounter = new AtomicInteger(shards.firstOwnedId(ShardRouter.FIRST_GENERATED_ID));
         initializeSampleData();
     }
 
@@ -29,36 +64,75 @@ public class DisclosureService {
         return Optional.ofNullable(disclosures.get(id));
     }
 
+    public List<Disclosure> findByIds(List<String> ids) {
+        logger.info("DisclosureService.findByIds called for {} disclosures (BATCHED)", ids.size());
+        simulateLatency();
+        return lookup(ids.stream());
+    }
+
+    public Mono<List<Disclosure>> findByIdsReactive(List<String> ids) {
+        logger.info("DisclosureService.findByIdsReactive called for {} disclosures (BATCHED)", ids.size());
+        return latency.delay(LATENCY, () -> lookup(ids.stream()));
+    }
+
     public List<Disclosure> findAll() {
         logger.info("DisclosureService.findAll called");
-        return List.copyOf(disclosures.values());
+        return disclosures.values().toList();
     }
 
     public List<Disclosure> findByAuthorId(String authorId) {
         logger.info("DisclosureService.findByAuthorId called for author: {}", authorId);
         simulateLatency();
-        return disclosures.values().stream()
-                .filter(d -> d.getAuthorId().equals(authorId))
-                .toList();
+        return disclosures.byAuthor(authorId).disclosures().get().toList();
     }
 
     public Map<String, List<Disclosure>> findByAuthorIds(List<String> authorIds) {
         logger.info("DisclosureService.findByAuthorIds called for {} authors (BATCHED)", authorIds.size());
         simulateLatency();
+        return lookupByAuthorIds(authorIds);
+    }
 
-        Map<String, List<Disclosure>> result = new ConcurrentHashMap<>();
-        for (String authorId : authorIds) {
-            List<Disclosure> authorDisclosures = disclosures.values().stream()
-                    .filter(d -> d.getAuthorId().equals(authorId))
-                    .toList();
-            result.put(authorId, authorDisclosures);
+    public Mono<Map<String, List<Disclosure>>> findByAuthorIdsReactive(List<String> authorIds) {
+        logger.info("DisclosureService.findByAuthorIdsReactive called for {} authors (BATCHED)", authorIds.size());
+        return latency.delay(LATENCY, () -> lookupByAuthorIds(authorIds));
+    }
+
+    public Mono<Map<String, Integer>> countByAuthorIdsReactive(List<String> authorIds) {
+        logger.info("DisclosureService.countByAuthorIdsReactive called for {} authors (BATCHED)", authorIds.size());
+        return latency.delay(LATENCY, () -> authorIds.stream()
+                .distinct()
+                .collect(Collectors.toMap(authorId -> authorId,
+                        authorId -> disclosures.byAuthor(authorId).size())));
+    }
+
+    public List<Disclosure> findPublishedSince(LocalDate cutoff) {
+        logger.info("DisclosureService.findPublishedSince called for cutoff: {}", cutoff);
+        return disclosures.publishedBetween(cutoff, null).stream()
+                .flatMap(day -> day.disclosures().get())
+                .toList();
+    }
+
+    /**
+     * Filtered and ordered lookup.
+     *
+     * Every index that applies to the filter is a candidate access path, and the one
+     * with the fewest disclosures is used to produce rows. The full filter is then applied to
+     * those rows, so the choice only affects cost, never the result.
+     */
+    public List<Disclosure> find(DisclosureFilter filter, DisclosureOrder order) {
+        Stream<Disclosure> matches = filter == null
+                ? disclosures.values()
+                : plan(filter);
+
+        if (order != null && order.getField() != null) {
+            matches = matches.sorted(comparator(order));
         }
-        return result;
+        return matches.toList();
     }
 
     public List<Disclosure> search(String keyword, int limit, int offset) {
         logger.info("DisclosureService.search called with keyword: {}, limit: {}, offset: {}", keyword, limit, offset);
-        return disclosures.values().stream()
+        return disclosures.values()
                 .filter(d -> keyword == null || d.getTitle().toLowerCase().contains(keyword.toLowerCase()))
                 .skip(offset)
                 .limit(limit)
@@ -66,15 +140,23 @@ public class DisclosureService {
     }
 
     public Disclosure create(String title, String description, Severity severity, String authorId) {
-        String id = String.valueOf(idCounter.getAndIncrement());
-        Disclosure disclosure = new Disclosure(id, title, description, LocalDate.now(),
-                severity, DisclosureStatus.DRAFT, authorId);
-        disclosures.put(id, disclosure);
+        return create(title, description, LocalDate.now(clock), severity, DisclosureStatus.DRAFT, authorId);
+    }
+
+    /**
+     * Adds a disclosure with a given publish date and status, e.g. one imported from elsewhere.
+     */
+    public Disclosure create(String title, String description, LocalDate publishedDate,
+                             Severity severity, DisclosureStatus status, String authorId) {
+        String id = String.valueOf(idCounter.getAndAdd(shards.count()));
+        Disclosure disclosure = new Disclosure(id, title, description, publishedDate,
+                severity, status, authorId);
+        store(disclosure);
         logger.info("Created disclosure: {}", id);
         return disclosure;
     }
 
-    public Optional<Disclosure> update(String id, String title, String description,
+    public synchronized Optional<Disclosure> update(String id, String title, String description,
                                       Severity severity, DisclosureStatus status) {
         Disclosure existing = disclosures.get(id);
         if (existing == null) {
@@ -83,23 +165,165 @@ public class DisclosureService {
 
         if (title != null) existing.setTitle(title);
         if (description != null) existing.setDescription(description);
-        if (severity != null) existing.setSeverity(severity);
-        if (status != null) existing.setStatus(status);
+        // A new object, so the store can still see the old values it indexed
+        Disclosure updated = new Disclosure(id,
+                title != null ? title : existing.getTitle(),
+                description != null ? description : existing.getDescription(),
+                existing.getPublishedDate(),
+                severity != null ? severity : existing.getSeverity(),
+                status != null ? status : existing.getStatus(),
+                existing.getAuthorId());
+        disclosures.put(updated);
+        versions.put(id, modifications.incrementAndGet());
 
         logger.info("Updated disclosure: {}", id);
-        return Optional.of(existing);
+        return Optional.of(updated);
     }
 
-    private void simulateLatency() {
+    /**
+     * Number of updates so far. Compare with {@link #version(String)} to tell whether a
+     * disclosure changed after a given point.
+     */
+    public long modificationCount() {
+        return modifications.get();
+    }
+
+    /**
+     * The modification number of the last update to a disclosure, or 0 if it was never updated.
+     */
+    public long version(String id) {
+        return versions.getOrDefault(id, 0L);
+    }
+
+    /**
+     * Throws {@link InvalidFilterException} if the filter can't be applied, so a caller
+     * can reject it before fanning it out.
+     */
+    public static void validate(DisclosureFilter filter) {
+        if (filter != null) {
+            parseDate("publishedFrom", filter.getPublishedFrom());
+            parseDate("publishedTo", filter.getPublishedTo());
+        }
+    }
+
+    /**
+     * Name of the access path {@link #find} would use for the filter.
+     */
+    String explain(DisclosureFilter filter) {
+        LocalDate from = parseDate("publishedFrom", filter.getPublishedFrom());
+        LocalDate to = parseDate("publishedTo", filter.getPublishedTo());
+        return isEmptyRange(from, to) ? "empty range" : choosePath(filter, from, to).name();
+    }
+
+    private Stream<Disclosure> plan(DisclosureFilter filter) {
+        LocalDate from = parseDate("publishedFrom", filter.getPublishedFrom());
+        LocalDate to = parseDate("publishedTo", filter.getPublishedTo());
+        if (isEmptyRange(from, to)) {
+            return Stream.empty();
+        }
+
+        AccessPath cheapest = choosePath(filter, from, to);
+        logger.info("DisclosureService.find using {} (~{} rows)", cheapest.name(), cheapest.estimatedRows());
+
+        // Buckets of one index never overlap, so no disclosure comes up twice
+        return cheapest.disclosures().get()
+                .filter(matches(filter, from, to));
+    }
+
+    private AccessPath choosePath(DisclosureFilter filter, LocalDate from, LocalDate to) {
+        List<AccessPath> paths = new ArrayList<>();
+        paths.add(new AccessPath("full scan", disclosures.size(), disclosures::values));
+
+        if (filter.getSeverityIn() != null) {
+            List<DisclosureBucket> buckets = filter.getSeverityIn().stream().distinct()
+                    .map(disclosures::withSeverity).toList();
+            paths.add(AccessPath.ofBuckets("severity index", buckets));
+        }
+        if (filter.getStatusIn() != null) {
+            List<DisclosureBucket> buckets = filter.getStatusIn().stream().distinct()
+                    .map(disclosures::withStatus).toList();
+            paths.add(AccessPath.ofBuckets("status index", buckets));
+        }
+        if (filter.getAuthorId() != null) {
+            paths.add(AccessPath.ofBuckets("author index", List.of(disclosures.byAuthor(filter.getAuthorId()))));
+        }
+        if (from != null || to != null) {
+            paths.add(AccessPath.ofBuckets("published date index", disclosures.publishedBetween(from, to)));
+        }
+
+        return paths.stream()
+                .min(Comparator.comparingInt(AccessPath::estimatedRows))
+                .orElseThrow();
+    }
+
+    private static boolean isEmptyRange(LocalDate from, LocalDate to) {
+        return from != null && to != null && from.isAfter(to);
+    }
+
+    private static LocalDate parseDate(String field, String value) {
+        if (value == null) {
+            return null;
+        }
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidFilterException(field + " must be an ISO date (yyyy-MM-dd), got: " + value);
+        }
+    }
+
+    private static Predicate<Disclosure> matches(DisclosureFilter filter, LocalDate from, LocalDate to) {
+        return d -> (filter.getSeverityIn() == null || filter.getSeverityIn().contains(d.getSeverity()))
+                && (filter.getStatusIn() == null || filter.getStatusIn().contains(d.getStatus()))
+                && (filter.getAuthorId() == null || filter.getAuthorId().equals(d.getAuthorId()))
+                && (from == null || !d.getPublishedDate().isBefore(from))
+                && (to == null || !d.getPublishedDate().isAfter(to));
+    }
+
+    /**
+     * The ordering {@link #find} applies, also used to merge results from several shards.
+     */
+    public static Comparator<Disclosure> comparator(DisclosureOrder order) {
+        Comparator<Disclosure> comparator = switch (order.getField()) {
+            case PUBLISHED_DATE -> Comparator.comparing(Disclosure::getPublishedDate);
+            case SEVERITY -> Comparator.comparing(Disclosure::getSeverity);
+            case TITLE -> Comparator.comparing(Disclosure::getTitle);
+        };
+        if (order.getDirection() == SortDirection.DESC) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparing(Disclosure::getId);
+    }
+
+    private List<Disclosure> lookup(Stream<String> ids) {
+        return ids.map(disclosures::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Map<String, List<Disclosure>> lookupByAuthorIds(List<String> authorIds) {
+        Map<String, List<Disclosure>> result = new ConcurrentHashMap<>();
+        for (String authorId : authorIds) {
+            result.put(authorId, disclosures.byAuthor(authorId).disclosures().get().toList());
+        }
+        return result;
+    }
+
+    private void store(Disclosure disclosure) {
+        disclosures.put(disclosure);
+    }
+
+    private void storeIfOwned(Disclosure disclosure) {
+        if (shards.isLocal(disclosure.getId())) {
+            store(disclosure);
         }
     }
 
+    private void simulateLatency() {
+        latency.block(LATENCY);
+    }
+
     private void initializeSampleData() {
-        disclosures.put("1", new Disclosure(
+        storeIfOwned(new Disclosure(
                 "1",
                 "Security Vulnerability in Authentication Module",
                 "Critical vulnerability allowing unauthorized access through JWT token manipulation",
@@ -109,7 +333,7 @@ public class DisclosureService {
                 "A1"
         ));
 
-        disclosures.put("2", new Disclosure(
+        storeIfOwned(new Disclosure(
                 "2",
                 "SQL Injection Risk in User Query",
                 "Potential SQL injection vulnerability in user search functionality",
@@ -119,7 +343,7 @@ public class DisclosureService {
                 "A2"
         ));
 
-        disclosures.put("3", new Disclosure(
+        storeIfOwned(new Disclosure(
                 "3",
                 "Performance Issue with Database Queries",
                 "Optimization needed for large dataset queries",
@@ -129,4 +353,13 @@ public class DisclosureService {
                 "A1"
         ));
     }
+
+    private record AccessPath(String name, int estimatedRows, Supplier<Stream<Disclosure>> disclosures) {
+
+        static AccessPath ofBuckets(String name, List<DisclosureBucket> buckets) {
+            int estimatedRows = buckets.stream().mapToInt(DisclosureBucket::size).sum();
+            return new AccessPath(name, estimatedRows,
+                    () -> buckets.stream().flatMap(bucket -> bucket.disclosures().get()));
+        }
+    }
 }
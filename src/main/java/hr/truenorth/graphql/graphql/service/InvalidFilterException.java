@@ -0,0 +1,11 @@
+package hr.truenorth.graphql.graphql.service;
+
+/**
+ * Raised when a filter argument is malformed, e.g. a date that isn't yyyy-MM-dd.
+ */
+public class InvalidFilterException extends RuntimeException {
+
+    public InvalidFilterException(String message) {
+        super(message);
+    }
+}
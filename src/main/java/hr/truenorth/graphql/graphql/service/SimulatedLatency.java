@@ -0,0 +1,42 @@
+package hr.truenorth.graphql.graphql.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Simulated backend latency for the in-memory services.
+ *
+ * Blocking methods always sleep. Reactive methods sleep too unless
+ * app.latency.non-blocking is set (the "reactive" profile does), in which case they
+ * wait on a timer and no thread is held while the "backend" responds.
+ */
+@Component
+public class SimulatedLatency {
+    private final boolean nonBlocking;
+
+    public SimulatedLatency(@Value("${app.latency.non-blocking:false}") boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
+    public void block(Duration latency) {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public <T> Mono<T> delay(Duration latency, Supplier<T> result) {
+        if (nonBlocking) {
+            return Mono.delay(latency).mapNotNull(tick -> result.get());
+        }
+        return Mono.fromSupplier(() -> {
+            block(latency);
+            return result.get();
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package hr.truenorth.graphql.graphql.shard;
+
+import hr.truenorth.graphql.graphql.input.CommentInput;
+import hr.truenorth.graphql.graphql.input.DisclosureFilter;
+import hr.truenorth.graphql.graphql.input.DisclosureOrder;
+import hr.truenorth.graphql.graphql.input.UpdateDisclosureInput;
+import hr.truenorth.graphql.graphql.model.Comment;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls the {@link ShardPeerController} endpoints of other instances.
+ *
+ * Calls are non-blocking, so a fan-out to several shards runs in parallel without
+ * holding a thread per call in both the servlet and the reactive mode. The builder is
+ * Spring Boot's, so bodies go through the application's ObjectMapper.
+ */
+@Component
+public class ShardClient {
+    private static final ParameterizedTypeReference<List<Disclosure>> DISCLOSURES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Comment>> COMMENTS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<Map<String, List<Disclosure>>> DISCLOSURES_BY_KEY =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<Map<String, List<Comment>>> COMMENTS_BY_KEY =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<Map<String, Integer>> COUNTS_BY_KEY =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<Disclosure> DISCLOSURE = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<Comment> COMMENT = new ParameterizedTypeReference<>() {
+    };
+
+    private final List<WebClient> peers;
+    private final Duration timeout;
+
+    public ShardClient(ShardProperties properties, WebClient.Builder webClientBuilder) {
+        this.peers = properties.peers().stream()
+                .map(peer -> webClientBuilder.clone()
+                        .baseUrl(peer + ShardPeerController.PATH)
+                        .defaultHeader(ShardPeerController.SECRET_HEADER, properties.secret())
+                        .build())
+                .toList();
+        this.timeout = properties.timeout();
+    }
+
+    public Mono<List<Disclosure>> findDisclosuresByIds(int shard, List<String> ids) {
+        return post(shard, "/disclosures/by-ids", ids, DISCLOSURES);
+    }
+
+    public Mono<List<Disclosure>> findDisclosures(int shard, DisclosureFilter filter, DisclosureOrder orderBy) {
+        return post(shard, "/disclosures/find", new ShardPeerController.FindRequest(filter, orderBy), DISCLOSURES);
+    }
+
+    public Mono<List<Disclosure>> findDisclosuresPublishedSince(int shard, LocalDate cutoff) {
+        return post(shard, "/disclosures/published-since", cutoff, DISCLOSURES);
+    }
+
+    public Mono<Map<String, List<Disclosure>>> findDisclosuresByAuthorIds(int shard, List<String> authorIds) {
+        return post(shard, "/disclosures/by-author-ids", authorIds, DISCLOSURES_BY_KEY);
+    }
+
+    public Mono<Map<String, Integer>> countDisclosuresByAuthorIds(int shard, List<String> authorIds) {
+        return post(shard, "/disclosures/count-by-author-ids", authorIds, COUNTS_BY_KEY);
+    }
+
+    public Mono<Disclosure> updateDisclosure(int shard, String id, UpdateDisclosureInput input) {
+        return post(shard, "/disclosures/" + id, input, DISCLOSURE);
+    }
+
+    public Mono<Comment> addComment(int shard, String disclosureId, CommentInput input) {
+        return post(shard, "/disclosures/" + disclosureId + "/comments", input, COMMENT);
+    }
+
+    public Mono<List<Comment>> findCommentsByIds(int shard, List<String> ids) {
+        return post(shard, "/comments/by-ids", ids, COMMENTS);
+    }
+
+    public Mono<Map<String, List<Comment>>> findCommentsByDisclosureIds(int shard, List<String> disclosureIds) {
+        return post(shard, "/comments/by-disclosure-ids", disclosureIds, COMMENTS_BY_KEY);
+    }
+
+    public Mono<Map<String, Integer>> countCommentsByDisclosureIds(int shard, List<String> disclosureIds) {
+        return post(shard, "/comments/count-by-disclosure-ids", disclosureIds, COUNTS_BY_KEY);
+    }
+
+    // A missing entity on the owner comes back as an empty 404, which becomes an empty Mono
+    private <T> Mono<T> post(int shard, String path, Object body, ParameterizedTypeReference<T> type) {
+        return peers.get(shard).post()
+                .uri(path)
+                .bodyValue(body)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                        return response.releaseBody().then(Mono.empty());
+                    }
+                    return response.statusCode().isError()
+                            ? response.createError()
+                            : response.bodyToMono(type);
+                })
+                .timeout(timeout);
+    }
+}
@@ -0,0 +1,123 @@
+package hr.truenorth.graphql.graphql.shard;
+
+import hr.truenorth.graphql.graphql.input.CommentInput;
+import hr.truenorth.graphql.graphql.input.DisclosureFilter;
+import hr.truenorth.graphql.graphql.input.DisclosureOrder;
+import hr.truenorth.graphql.graphql.input.UpdateDisclosureInput;
+import hr.truenorth.graphql.graphql.model.Comment;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers other instances with this shard's part of the data. Only registered when
+ * peers are configured.
+ *
+ * The endpoints are served on the public port, so every call must carry the shared
+ * {@code app.shard.secret} in {@link #SECRET_HEADER}; anything else gets a 403.
+ *
+ * Lookups that wait on the simulated backend use the reactive service methods, so in
+ * the reactive mode a peer call never parks an event loop thread.
+ */
+@RestController
+@RequestMapping(ShardPeerController.PATH)
+@ConditionalOnProperty("app.shard.peers")
+public class ShardPeerController {
+    static final String PATH = "/internal/shard";
+    static final String SECRET_HEADER = "X-Shard-Secret";
+
+    private final DisclosureService disclosureService;
+    private final CommentService commentService;
+    private final byte[] secret;
+
+    public ShardPeerController(DisclosureService disclosureService, CommentService commentService,
+                               ShardProperties properties) {
+        this.disclosureService = disclosureService;
+        this.commentService = commentService;
+        this.secret = properties.secret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Runs before every handler in this controller
+    @ModelAttribute
+    void authenticate(@RequestHeader(name = SECRET_HEADER, required = false) String presented) {
+        // Constant-time comparison, so response timing doesn't reveal how much of a guess matched
+        if (presented == null || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Missing or wrong " + SECRET_HEADER);
+        }
+    }
+
+    record FindRequest(DisclosureFilter filter, DisclosureOrder orderBy) {
+    }
+
+    @PostMapping("/disclosures/by-ids")
+    public Mono<List<Disclosure>> disclosuresByIds(@RequestBody List<String> ids) {
+        return disclosureService.findByIdsReactive(ids);
+    }
+
+    @PostMapping("/disclosures/find")
+    public List<Disclosure> findDisclosures(@RequestBody FindRequest request) {
+        return disclosureService.find(request.filter(), request.orderBy());
+    }
+
+    @PostMapping("/disclosures/published-since")
+    public List<Disclosure> disclosuresPublishedSince(@RequestBody LocalDate cutoff) {
+        return disclosureService.findPublishedSince(cutoff);
+    }
+
+    @PostMapping("/disclosures/by-author-ids")
+    public Mono<Map<String, List<Disclosure>>> disclosuresByAuthorIds(@RequestBody List<String> authorIds) {
+        return disclosureService.findByAuthorIdsReactive(authorIds);
+    }
+
+    @PostMapping("/disclosures/count-by-author-ids")
+    public Mono<Map<String, Integer>> disclosureCountsByAuthorIds(@RequestBody List<String> authorIds) {
+        return disclosureService.countByAuthorIdsReactive(authorIds);
+    }
+
+    @PostMapping("/disclosures/{id}")
+    public ResponseEntity<Disclosure> updateDisclosure(@PathVariable String id, @RequestBody UpdateDisclosureInput input) {
+        return ResponseEntity.of(disclosureService.update(id, input.getTitle(), input.getDescription(),
+                input.getSeverity(), input.getStatus()));
+    }
+
+    @PostMapping("/disclosures/{disclosureId}/comments")
+    public ResponseEntity<Comment> addComment(@PathVariable String disclosureId, @RequestBody CommentInput input) {
+        if (disclosureService.findById(disclosureId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(commentService.create(disclosureId, input.getContent(), input.getAuthorId()));
+    }
+
+    @PostMapping("/comments/by-ids")
+    public Mono<List<Comment>> commentsByIds(@RequestBody List<String> ids) {
+        return commentService.findByIdsReactive(ids);
+    }
+
+    @PostMapping("/comments/by-disclosure-ids")
+    public Mono<Map<String, List<Comment>>> commentsByDisclosureIds(@RequestBody List<String> disclosureIds) {
+        return commentService.findByDisclosureIdsReactive(disclosureIds);
+    }
+
+    @PostMapping("/comments/count-by-disclosure-ids")
+    public Mono<Map<String, Integer>> commentCountsByDisclosureIds(@RequestBody List<String> disclosureIds) {
+        return commentService.countByDisclosureIdsReactive(disclosureIds);
+    }
+}
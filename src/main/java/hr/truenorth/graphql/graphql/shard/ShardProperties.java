@@ -0,0 +1,38 @@
+package hr.truenorth.graphql.graphql.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Partitioning of disclosures and comments across app instances.
+ *
+ * @param index    this instance's position in {@code peers}
+ * @param peers    base URLs of all instances, this one included, in shard order;
+ *                 empty runs a single unpartitioned instance
+ * @param secret   shared by all instances and sent with every peer call; the peer
+ *                 endpoints sit on the public port, so they refuse calls without it
+ * @param timeout  how long a call to a peer may take
+ */
+@ConfigurationProperties("app.shard")
+public record ShardProperties(
+        @DefaultValue("0") int index,
+        @DefaultValue List<String> peers,
+        String secret,
+        @DefaultValue("5s") Duration timeout) {
+
+    public ShardProperties {
+        if (!peers.isEmpty() && (index < 0 || index >= peers.size())) {
+            throw new IllegalArgumentException("app.shard.index " + index + " is outside the " + peers.size() + " peers");
+        }
+        if (!peers.isEmpty() && (secret == null || secret.isBlank())) {
+            throw new IllegalArgumentException("app.shard.secret must be set when app.shard.peers is");
+        }
+    }
+
+    public int count() {
+        return Math.max(1, peers.size());
+    }
+}
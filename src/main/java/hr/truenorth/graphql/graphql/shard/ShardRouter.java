@@ -0,0 +1,116 @@
+package hr.truenorth.graphql.graphql.shard;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which instance owns a disclosure and fans work out to the owners.
+ *
+ * Numeric disclosure ids are placed by id mod shard count, and every instance hands
+ * out only ids that land on itself, so a new disclosure is owned by the instance that
+ * created it. Comments live with their disclosure. Authors are small and replicated, so
+ * they never need routing. With no peers configured there is one shard and everything
+ * is local.
+ *
+ * In a fan-out the local part is subscribed on Reactor's bounded elastic pool. A local
+ * lookup may block, and run on the subscribing thread it would hold back the calls to
+ * the other shards and, in the reactive mode, block an event loop thread.
+ */
+@Component
+public class ShardRouter {
+    /**
+     * Where the id counters start; lower ids are the sample data.
+     */
+    public static final int FIRST_GENERATED_ID = 4;
+
+    private final ShardProperties properties;
+
+    public ShardRouter(ShardProperties properties) {
+        this.properties = properties;
+    }
+
+    public int count() {
+        return properties.count();
+    }
+
+    public int index() {
+        return properties.index();
+    }
+
+    public int shardOf(String disclosureId) {
+        int id;
+        try {
+            id = Integer.parseInt(disclosureId);
+        } catch (NumberFormatException e) {
+            id = disclosureId.hashCode();
+        }
+        return Math.floorMod(id, count());
+    }
+
+    public boolean isLocal(String disclosureId) {
+        return shardOf(disclosureId) == index();
+    }
+
+    /**
+     * Smallest id at or above {@code start} that this shard owns. Counters then step by
+     * {@link #count()} so ids stay unique across shards.
+     */
+    public int firstOwnedId(int start) {
+        return start + Math.floorMod(index() - start, count());
+    }
+
+    /**
+     * Distinct disclosure ids grouped by owning shard, in shard order.
+     */
+    public Map<Integer, List<String>> partition(Collection<String> disclosureIds) {
+        Map<Integer, List<String>> partitions = new TreeMap<>();
+        disclosureIds.stream().distinct().forEach(id ->
+                partitions.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id));
+        return partitions;
+    }
+
+    /**
+     * Runs each partition on its shard, all shards in parallel.
+     */
+    public <T> Flux<T> scatter(Collection<String> disclosureIds,
+                               Function<List<String>, Mono<T>> local,
+                               BiFunction<Integer, List<String>, Mono<T>> remote) {
+        return Flux.fromIterable(partition(disclosureIds).entrySet())
+                .flatMap(partition -> partition.getKey() == index()
+                        ? alongsideRemote(() -> local.apply(partition.getValue()))
+                        : remote.apply(partition.getKey(), partition.getValue()));
+    }
+
+    /**
+     * Runs the same request on every shard in parallel, results in shard order.
+     */
+    public <T> Flux<T> broadcast(Supplier<Mono<T>> local, IntFunction<Mono<T>> remote) {
+        return Flux.range(0, count())
+                .flatMapSequential(shard -> shard == index() ? alongsideRemote(local) : remote.apply(shard));
+    }
+
+    /**
+     * Runs a request on the shard owning {@code disclosureId}.
+     */
+    public <T> Mono<T> route(String disclosureId, Supplier<Mono<T>> local, IntFunction<Mono<T>> remote) {
+        int shard = shardOf(disclosureId);
+        return shard == index() ? local.get() : remote.apply(shard);
+    }
+
+    // A single shard has nothing to run alongside, so its lookup stays on the caller's thread
+    private <T> Mono<T> alongsideRemote(Supplier<Mono<T>> local) {
+        return count() == 1 ? local.get() : Mono.defer(local).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,145 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Comment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ArrayList;
+
+/**
+ * Comments as parallel primitive columns indexed by the numeric part of the id.
+ *
+ * A comment costs a long timestamp and three dictionary codes instead of an object
+ * graph of Comment, LocalDateTime, LocalDate, LocalTime and the map entry. Content goes
+ * through a dictionary too, so repeated text is held once. Comment objects are only
+ * created for rows a caller asks for.
+ *
+ * Next to the columns, each disclosure code keeps the sorted rows of its comments, so
+ * looking up a disclosure's comments reads just those rows instead of the whole column.
+ */
+public class ColumnarCommentStore extends ColumnarStore implements CommentStore {
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private final StringDictionary authorIds = new StringDictionary();
+    private final StringDictionary disclosureIds = new StringDictionary();
+    private final StringDictionary contents = new StringDictionary();
+    private int[] contentCodes = new int[0];
+    // Nanoseconds since the epoch, reading the LocalDateTime as UTC
+    private long[] createdAt = new long[0];
+    private int[] authorCodes = new int[0];
+    private int[] disclosureCodes = new int[0];
+    private final RowIndex rowsByDisclosure = new RowIndex();
+
+    public ColumnarCommentStore() {
+        super("C");
+    }
+
+    /**
+     * Store for one shard's comments, see {@link ColumnarStore} for the id layout.
+     */
+    public ColumnarCommentStore(int firstDenseId, int stride) {
+        super("C", firstDenseId, stride);
+    }
+
+    @Override
+    public Comment get(String id) {
+        int row = rowOf(id);
+        return read(() -> isPresent(row) ? materialize(row) : null);
+    }
+
+    @Override
+    public void put(Comment comment) {
+        write(() -> {
+            boolean existed = isPresent(rowOf(comment.getId()));
+            int row = claim(comment.getId());
+            int previousCode = existed ? disclosureCodes[row] : StringDictionary.NULL_CODE;
+            int code = disclosureIds.encode(comment.getDisclosureId());
+            contentCodes[row] = contents.encode(comment.getContent());
+            createdAt[row] = encode(comment.getCreatedAt());
+            authorCodes[row] = authorIds.encode(comment.getAuthorId());
+            disclosureCodes[row] = code;
+            if (!existed || previousCode != code) {
+                rowsByDisclosure.remove(previousCode, row);
+                rowsByDisclosure.add(code, row);
+            }
+        });
+    }
+
+    /**
+     * Reads only the indexed rows of each requested disclosure, in id order.
+     */
+    @Override
+    public Map<String, List<Comment>> findByDisclosureIds(List<String> disclosureIdList) {
+        return read(() -> {
+            Map<String, List<Comment>> result = new LinkedHashMap<>();
+            for (String disclosureId : disclosureIdList) {
+                int code = disclosureIds.codeOf(disclosureId);
+                int count = rowsByDisclosure.count(code);
+                List<Comment> comments = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    comments.add(materialize(rowsByDisclosure.row(code, i)));
+                }
+                result.put(disclosureId, comments);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Map<String, Integer> countByDisclosureIds(List<String> disclosureIdList) {
+        return read(() -> {
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (String disclosureId : disclosureIdList) {
+                result.put(disclosureId, rowsByDisclosure.count(disclosureIds.codeOf(disclosureId)));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public StoreStats stats() {
+        return read(() -> {
+            long bytes = bookkeepingBytes()
+                    + ObjectSizes.array(capacity(), 8)
+                    + 3 * ObjectSizes.array(capacity(), 4)
+                    + authorIds.estimatedBytes()
+                    + disclosureIds.estimatedBytes()
+                    + contents.estimatedBytes()
+                    + rowsByDisclosure.estimatedBytes();
+            return StoreStats.of("Comment", "columnar", size(), bytes);
+        });
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        contentCodes = Arrays.copyOf(contentCodes, newCapacity);
+        createdAt = Arrays.copyOf(createdAt, newCapacity);
+        authorCodes = Arrays.copyOf(authorCodes, newCapacity);
+        disclosureCodes = Arrays.copyOf(disclosureCodes, newCapacity);
+    }
+
+    private Comment materialize(int row) {
+        return new Comment(idOf(row), contents.decode(contentCodes[row]), decode(createdAt[row]),
+                authorIds.decode(authorCodes[row]), disclosureIds.decode(disclosureCodes[row]));
+    }
+
+    private static long encode(LocalDateTime value) {
+        if (value == null) {
+            return NULL_TIMESTAMP;
+        }
+        return Math.addExact(Math.multiplyExact(value.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L),
+                value.getNano());
+    }
+
+    private static LocalDateTime decode(long value) {
+        if (value == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000_000L),
+                (int) Math.floorMod(value, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
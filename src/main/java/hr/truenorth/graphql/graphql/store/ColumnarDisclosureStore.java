@@ -0,0 +1,193 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Disclosures as parallel primitive columns indexed by the numeric id.
+ *
+ * Dates are epoch days, enums are byte ordinals, and the author id, title and
+ * description are dictionary codes, so repeated text is held once. Disclosure objects
+ * are only created for rows a caller asks for.
+ *
+ * The secondary indexes hold rows rather than ids: one sorted int array per severity,
+ * status, author code and publish day.
+ */
+public class ColumnarDisclosureStore extends ColumnarStore implements DisclosureStore {
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final byte NULL_ORDINAL = -1;
+    private static final Severity[] SEVERITIES = Severity.values();
+    private static final DisclosureStatus[] STATUSES = DisclosureStatus.values();
+
+    private final StringDictionary authorIds = new StringDictionary();
+    // Titles and descriptions share one dictionary
+    private final StringDictionary texts = new StringDictionary();
+    private int[] titleCodes = new int[0];
+    private int[] descriptionCodes = new int[0];
+    private int[] publishedDates = new int[0];
+    private byte[] severities = new byte[0];
+    private byte[] statuses = new byte[0];
+    private int[] authorCodes = new int[0];
+
+    private final RowIndex rowsBySeverity = new RowIndex();
+    private final RowIndex rowsByStatus = new RowIndex();
+    private final RowIndex rowsByAuthor = new RowIndex();
+    private final RowIndex rowsByDay = new RowIndex();
+    // Epoch day to its key in rowsByDay, ordered for range scans
+    private final NavigableMap<Integer, Integer> dayKeys = new TreeMap<>();
+
+    public ColumnarDisclosureStore() {
+        super("");
+    }
+
+    /**
+     * Store for one shard's disclosures, see {@link ColumnarStore} for the id layout.
+     */
+    public ColumnarDisclosureStore(int firstDenseId, int stride) {
+        super("", firstDenseId, stride);
+    }
+
+    @Override
+    public Disclosure get(String id) {
+        int row = rowOf(id);
+        return read(() -> isPresent(row) ? materialize(row) : null);
+    }
+
+    @Override
+    public void put(Disclosure disclosure) {
+        write(() -> {
+            boolean existed = isPresent(rowOf(disclosure.getId()));
+            int row = claim(disclosure.getId());
+            if (existed) {
+                unindex(row);
+            }
+            titleCodes[row] = texts.encode(disclosure.getTitle());
+            descriptionCodes[row] = texts.encode(disclosure.getDescription());
+            publishedDates[row] = disclosure.getPublishedDate() == null
+                    ? NULL_DATE
+                    : (int) disclosure.getPublishedDate().toEpochDay();
+            severities[row] = ordinal(disclosure.getSeverity());
+            statuses[row] = ordinal(disclosure.getStatus());
+            authorCodes[row] = authorIds.encode(disclosure.getAuthorId());
+            index(row);
+        });
+    }
+
+    @Override
+    public Stream<String> ids() {
+        return rows().mapToObj(this::idOf);
+    }
+
+    @Override
+    public Stream<Disclosure> values() {
+        return rows().mapToObj(row -> read(() -> materialize(row)));
+    }
+
+    @Override
+    public DisclosureBucket withSeverity(Severity severity) {
+        return read(() -> bucketOf(rowsBySeverity, ordinal(severity)));
+    }
+
+    @Override
+    public DisclosureBucket withStatus(DisclosureStatus status) {
+        return read(() -> bucketOf(rowsByStatus, ordinal(status)));
+    }
+
+    @Override
+    public DisclosureBucket byAuthor(String authorId) {
+        return read(() -> bucketOf(rowsByAuthor, authorIds.codeOf(authorId)));
+    }
+
+    @Override
+    public List<DisclosureBucket> publishedBetween(LocalDate from, LocalDate to) {
+        return read(() -> {
+            NavigableMap<Integer, Integer> range = dayKeys;
+            if (from != null) range = range.tailMap((int) from.toEpochDay(), true);
+            if (to != null) range = range.headMap((int) to.toEpochDay(), true);
+            return range.descendingMap().values().stream()
+                    .map(key -> bucketOf(rowsByDay, key))
+                    .toList();
+        });
+    }
+
+    @Override
+    public StoreStats stats() {
+        return read(() -> {
+            long bytes = bookkeepingBytes()
+                    + 4 * ObjectSizes.array(capacity(), 4)
+                    + 2 * ObjectSizes.array(capacity(), 1)
+                    + authorIds.estimatedBytes()
+                    + texts.estimatedBytes()
+                    + rowsBySeverity.estimatedBytes()
+                    + rowsByStatus.estimatedBytes()
+                    + rowsByAuthor.estimatedBytes()
+                    + rowsByDay.estimatedBytes()
+                    // TreeMap.Entry with its boxed key and value
+                    + (long) dayKeys.size() * (ObjectSizes.object(5, 1) + 2 * ObjectSizes.object(0, 4));
+            return StoreStats.of("Disclosure", "columnar", size(), bytes);
+        });
+    }
+
+    @Override
+    protected void grow(int newCapacity) {
+        titleCodes = Arrays.copyOf(titleCodes, newCapacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, newCapacity);
+        publishedDates = Arrays.copyOf(publishedDates, newCapacity);
+        severities = Arrays.copyOf(severities, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        authorCodes = Arrays.copyOf(authorCodes, newCapacity);
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    private void index(int row) {
+        rowsBySeverity.add(severities[row], row);
+        rowsByStatus.add(statuses[row], row);
+        rowsByAuthor.add(authorCodes[row], row);
+        if (publishedDates[row] != NULL_DATE) {
+            rowsByDay.add(dayKeys.computeIfAbsent(publishedDates[row], day -> dayKeys.size()), row);
+        }
+    }
+
+    /**
+     * Must be called with the write lock held, before the row's columns are overwritten.
+     */
+    private void unindex(int row) {
+        rowsBySeverity.remove(severities[row], row);
+        rowsByStatus.remove(statuses[row], row);
+        rowsByAuthor.remove(authorCodes[row], row);
+        if (publishedDates[row] != NULL_DATE) {
+            rowsByDay.remove(dayKeys.get(publishedDates[row]), row);
+        }
+    }
+
+    /**
+     * Must be called with the read lock held. The rows are only copied once the bucket
+     * is read, so a planner comparing sizes doesn't pay for it.
+     */
+    private DisclosureBucket bucketOf(RowIndex index, int key) {
+        return new DisclosureBucket(index.count(key), () -> Arrays.stream(read(() -> index.rows(key)))
+                .mapToObj(row -> read(() -> materialize(row))));
+    }
+
+    private Disclosure materialize(int row) {
+        return new Disclosure(idOf(row), texts.decode(titleCodes[row]), texts.decode(descriptionCodes[row]),
+                publishedDates[row] == NULL_DATE ? null : LocalDate.ofEpochDay(publishedDates[row]),
+                severities[row] == NULL_ORDINAL ? null : SEVERITIES[severities[row]],
+                statuses[row] == NULL_ORDINAL ? null : STATUSES[statuses[row]],
+                authorIds.decode(authorCodes[row]));
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+    }
+}
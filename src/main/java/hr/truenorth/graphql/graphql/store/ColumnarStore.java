@@ -0,0 +1,163 @@
+package hr.truenorth.graphql.graphql.store;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Row bookkeeping shared by the columnar stores.
+ *
+ * Ids are the service's counter with a fixed prefix ("C42", "42"), so the row follows
+ * from the number and no id-to-row map is needed. Subclasses keep one primitive array
+ * per field, sized by {@link #grow(int)}.
+ *
+ * When sharded, each instance's counter starts at {@code firstDenseId} and steps by the
+ * shard count, so the ids it stores are strided. Those map to consecutive rows
+ * ({@code firstDenseId + (id - firstDenseId) / stride}) instead of leaving every other
+ * shard's ids as empty rows. Ids below {@code firstDenseId} are the sample data, which
+ * is placed by disclosure rather than by counter, and keep their number as the row.
+ */
+abstract class ColumnarStore {
+    private static final int INITIAL_CAPACITY = 16;
+    // The largest array most JVMs will allocate
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final String idPrefix;
+    private final int firstDenseId;
+    private final int stride;
+    private final BitSet present = new BitSet();
+    private int capacity;
+    private int rows;
+
+    protected ColumnarStore(String idPrefix) {
+        this(idPrefix, 0, 1);
+    }
+
+    protected ColumnarStore(String idPrefix, int firstDenseId, int stride) {
+        if (firstDenseId < 0 || stride < 1) {
+            throw new IllegalArgumentException("Expected firstDenseId >= 0 and stride >= 1, got "
+                    + firstDenseId + " and " + stride);
+        }
+        this.idPrefix = idPrefix;
+        this.firstDenseId = firstDenseId;
+        this.stride = stride;
+    }
+
+    /**
+     * Row for an id, or -1 when the id doesn't have this store's shape or is one of the
+     * other shards' generated ids.
+     */
+    protected int rowOf(String id) {
+        if (id == null || !id.startsWith(idPrefix) || id.length() == idPrefix.length()) {
+            return -1;
+        }
+        // Reject signs and leading zeros so every row has exactly one id
+        char first = id.charAt(idPrefix.length());
+        if (first < '1' || first > '9') {
+            return -1;
+        }
+        int number;
+        try {
+            number = Integer.parseUnsignedInt(id, idPrefix.length(), id.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (number < 0) {
+            return -1;
+        }
+        if (number < firstDenseId) {
+            return number;
+        }
+        int offset = number - firstDenseId;
+        return offset % stride == 0 ? firstDenseId + offset / stride : -1;
+    }
+
+    protected String idOf(int row) {
+        long number = row < firstDenseId ? row : firstDenseId + (long) (row - firstDenseId) * stride;
+        return idPrefix + number;
+    }
+
+    /**
+     * Must be called with the read lock held.
+     */
+    protected boolean isPresent(int row) {
+        return row >= 0 && present.get(row);
+    }
+
+    /**
+     * Marks a row as stored, growing the columns first if needed. Must be called with
+     * the write lock held.
+     */
+    protected int claim(String id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            throw new IllegalArgumentException("Expected an id like " + idPrefix + "<n>, got " + id);
+        }
+        if (row >= capacity) {
+            if (row >= MAX_CAPACITY) {
+                throw new IllegalStateException("Row " + row + " for id " + id + " is past the largest column of "
+                        + MAX_CAPACITY + " rows");
+            }
+            // Doubling in a long and capping keeps the last step from overflowing past 2^30
+            long newCapacity = Math.max(INITIAL_CAPACITY, capacity);
+            while (newCapacity <= row) {
+                newCapacity = newCapacity * 2;
+            }
+            int cappedCapacity = (int) Math.min(newCapacity, MAX_CAPACITY);
+            grow(cappedCapacity);
+            capacity = cappedCapacity;
+        }
+        if (!present.get(row)) {
+            present.set(row);
+            rows++;
+        }
+        return row;
+    }
+
+    /**
+     * The stored rows in id order, found one at a time rather than copied up front. Rows
+     * are never removed, so callers can read each one afterwards.
+     */
+    protected IntStream rows() {
+        return IntStream.iterate(nextRow(0), row -> row >= 0, row -> nextRow(row + 1));
+    }
+
+    private int nextRow(int from) {
+        return read(() -> present.nextSetBit(from));
+    }
+
+    protected abstract void grow(int newCapacity);
+
+    protected <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    protected void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return read(() -> rows);
+    }
+
+    protected int capacity() {
+        return capacity;
+    }
+
+    protected long bookkeepingBytes() {
+        return ObjectSizes.array(capacity / 64 + 1, 8);
+    }
+}
@@ -0,0 +1,28 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Comment;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage behind {@link hr.truenorth.graphql.graphql.service.CommentService}.
+ *
+ * Returned comments may be materialized on demand, so changes to them are only kept
+ * once they are passed back to {@link #put(Comment)}.
+ */
+public interface CommentStore {
+
+    Comment get(String id);
+
+    void put(Comment comment);
+
+    Map<String, List<Comment>> findByDisclosureIds(List<String> disclosureIds);
+
+    /**
+     * Number of comments on each disclosure, without materializing them.
+     */
+    Map<String, Integer> countByDisclosureIds(List<String> disclosureIds);
+
+    StoreStats stats();
+}
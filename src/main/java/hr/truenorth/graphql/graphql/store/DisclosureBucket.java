@@ -0,0 +1,15 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Disclosure;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The disclosures sharing one indexed value, e.g. every CRITICAL one.
+ *
+ * @param size         number of disclosures when the bucket was taken
+ * @param disclosures  reads them, materializing one at a time
+ */
+public record DisclosureBucket(int size, Supplier<Stream<Disclosure>> disclosures) {
+}
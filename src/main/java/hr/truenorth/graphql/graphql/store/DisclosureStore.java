@@ -0,0 +1,45 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage behind {@link hr.truenorth.graphql.graphql.service.DisclosureService}.
+ *
+ * Returned disclosures may be materialized on demand, so changes to them are only kept
+ * once they are passed back to {@link #put(Disclosure)}.
+ *
+ * The store also keeps the secondary indexes, so they use its layout and count towards
+ * its {@link #stats()}. Buckets of different values never share a disclosure.
+ */
+public interface DisclosureStore {
+
+    Disclosure get(String id);
+
+    void put(Disclosure disclosure);
+
+    Stream<String> ids();
+
+    Stream<Disclosure> values();
+
+    DisclosureBucket withSeverity(Severity severity);
+
+    DisclosureBucket withStatus(DisclosureStatus status);
+
+    DisclosureBucket byAuthor(String authorId);
+
+    /**
+     * One bucket per publish day from {@code from} to {@code to}, both inclusive and
+     * either open when null, newest day first.
+     */
+    List<DisclosureBucket> publishedBetween(LocalDate from, LocalDate to);
+
+    int size();
+
+    StoreStats stats();
+}
@@ -0,0 +1,60 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Comment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The original layout: one Comment object per id in a ConcurrentHashMap.
+ */
+public class HashMapCommentStore implements CommentStore {
+    private final Map<String, Comment> comments = new ConcurrentHashMap<>();
+
+    @Override
+    public Comment get(String id) {
+        return comments.get(id);
+    }
+
+    @Override
+    public void put(Comment comment) {
+        comments.put(comment.getId(), comment);
+    }
+
+    @Override
+    public Map<String, List<Comment>> findByDisclosureIds(List<String> disclosureIds) {
+        Map<String, List<Comment>> result = new ConcurrentHashMap<>();
+        for (String disclosureId : disclosureIds) {
+            result.put(disclosureId, comments.values().stream()
+                    .filter(comment -> comment.getDisclosureId().equals(disclosureId))
+                    .toList());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> countByDisclosureIds(List<String> disclosureIds) {
+        Map<String, Integer> result = new ConcurrentHashMap<>();
+        for (String disclosureId : disclosureIds) {
+            result.put(disclosureId, (int) comments.values().stream()
+                    .filter(comment -> comment.getDisclosureId().equals(disclosureId))
+                    .count());
+        }
+        return result;
+    }
+
+    @Override
+    public StoreStats stats() {
+        long bytes = ObjectSizes.hashTable(comments.size());
+        for (Comment comment : comments.values()) {
+            bytes += ObjectSizes.object(5, 0)
+                    + ObjectSizes.string(comment.getId())
+                    + ObjectSizes.string(comment.getContent())
+                    + (comment.getCreatedAt() != null ? ObjectSizes.LOCAL_DATE_TIME : 0)
+                    + ObjectSizes.string(comment.getAuthorId())
+                    + ObjectSizes.string(comment.getDisclosureId());
+        }
+        return StoreStats.of("Comment", "hashmap", comments.size(), bytes);
+    }
+}
@@ -0,0 +1,141 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * The original layout: one Disclosure object per id in a ConcurrentHashMap, and a set
+ * of ids per indexed value.
+ */
+public class HashMapDisclosureStore implements DisclosureStore {
+    private final Map<String, Disclosure> disclosures = new ConcurrentHashMap<>();
+    // One bucket of disclosure ids per publish day, so "published since" is a range scan
+    private final NavigableMap<LocalDate, Set<String>> publishedDateIndex = new ConcurrentSkipListMap<>();
+    private final Map<Severity, Set<String>> severityIndex = new EnumMap<>(Severity.class);
+    private final Map<DisclosureStatus, Set<String>> statusIndex = new EnumMap<>(DisclosureStatus.class);
+    private final Map<String, Set<String>> authorIndex = new ConcurrentHashMap<>();
+
+    public HashMapDisclosureStore() {
+        // Enum indexes are fully populated up front so readers never see a structural change
+        for (Severity severity : Severity.values()) {
+            severityIndex.put(severity, ConcurrentHashMap.newKeySet());
+        }
+        for (DisclosureStatus status : DisclosureStatus.values()) {
+            statusIndex.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @Override
+    public Disclosure get(String id) {
+        return disclosures.get(id);
+    }
+
+    @Override
+    public synchronized void put(Disclosure disclosure) {
+        String id = disclosure.getId();
+        Disclosure previous = disclosures.put(id, disclosure);
+        if (previous == disclosure) {
+            // Changed in place, so its old values are gone; updates are rare enough to look everywhere
+            publishedDateIndex.values().forEach(ids -> ids.remove(id));
+            severityIndex.values().forEach(ids -> ids.remove(id));
+            statusIndex.values().forEach(ids -> ids.remove(id));
+            authorIndex.values().forEach(ids -> ids.remove(id));
+        } else if (previous != null) {
+            bucket(publishedDateIndex, previous.getPublishedDate()).remove(id);
+            severityIndex.get(previous.getSeverity()).remove(id);
+            statusIndex.get(previous.getStatus()).remove(id);
+            bucket(authorIndex, previous.getAuthorId()).remove(id);
+        }
+        bucket(publishedDateIndex, disclosure.getPublishedDate()).add(id);
+        severityIndex.get(disclosure.getSeverity()).add(id);
+        statusIndex.get(disclosure.getStatus()).add(id);
+        bucket(authorIndex, disclosure.getAuthorId()).add(id);
+    }
+
+    @Override
+    public Stream<String> ids() {
+        return disclosures.keySet().stream();
+    }
+
+    @Override
+    public Stream<Disclosure> values() {
+        return disclosures.values().stream();
+    }
+
+    @Override
+    public DisclosureBucket withSeverity(Severity severity) {
+        return bucketOf(severityIndex.get(severity));
+    }
+
+    @Override
+    public DisclosureBucket withStatus(DisclosureStatus status) {
+        return bucketOf(statusIndex.get(status));
+    }
+
+    @Override
+    public DisclosureBucket byAuthor(String authorId) {
+        return bucketOf(authorIndex.getOrDefault(authorId, Set.of()));
+    }
+
+    @Override
+    public List<DisclosureBucket> publishedBetween(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Set<String>> range = publishedDateIndex;
+        if (from != null) range = range.tailMap(from, true);
+        if (to != null) range = range.headMap(to, true);
+        return range.descendingMap().values().stream()
+                .map(this::bucketOf)
+                .toList();
+    }
+
+    @Override
+    public int size() {
+        return disclosures.size();
+    }
+
+    @Override
+    public StoreStats stats() {
+        long bytes = ObjectSizes.hashTable(disclosures.size());
+        for (Disclosure disclosure : disclosures.values()) {
+            // Severity and status are shared enum constants
+            bytes += ObjectSizes.object(7, 0)
+                    + ObjectSizes.string(disclosure.getId())
+                    + ObjectSizes.string(disclosure.getTitle())
+                    + ObjectSizes.string(disclosure.getDescription())
+                    + (disclosure.getPublishedDate() != null ? ObjectSizes.LOCAL_DATE : 0)
+                    + ObjectSizes.string(disclosure.getAuthorId());
+        }
+        // The index sets share the id strings with the map above
+        bytes += ObjectSizes.hashTable(authorIndex.size());
+        for (Set<String> ids : publishedDateIndex.values()) {
+            bytes += ObjectSizes.SKIP_LIST_ENTRY + ObjectSizes.concurrentSet(ids.size());
+        }
+        for (Map<?, Set<String>> index : List.of(severityIndex, statusIndex, authorIndex)) {
+            for (Set<String> ids : index.values()) {
+                bytes += ObjectSizes.concurrentSet(ids.size());
+            }
+        }
+        return StoreStats.of("Disclosure", "hashmap", disclosures.size(), bytes);
+    }
+
+    private DisclosureBucket bucketOf(Set<String> ids) {
+        return new DisclosureBucket(ids.size(), () -> ids.stream()
+                .map(disclosures::get)
+                .filter(Objects::nonNull));
+    }
+
+    private static <K> Set<String> bucket(Map<K, Set<String>> index, K key) {
+        return index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+}
@@ -0,0 +1,55 @@
+package hr.truenorth.graphql.graphql.store;
+
+/**
+ * Shallow size arithmetic for a 64-bit JVM with compressed oops and compact strings.
+ * Good enough to compare layouts, not a substitute for a heap dump.
+ */
+final class ObjectSizes {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    // LocalDate: int + short + short; LocalTime: 3 bytes + int; LocalDateTime: two references
+    static final long LOCAL_DATE = align(OBJECT_HEADER + 8);
+    static final long LOCAL_DATE_TIME = align(OBJECT_HEADER + 2 * REFERENCE) + LOCAL_DATE
+            + align(OBJECT_HEADER + 7);
+    // ConcurrentHashMap.Node: hash, key, value, next
+    static final long MAP_NODE = align(OBJECT_HEADER + 4 + 3 * REFERENCE);
+    // ConcurrentSkipListMap.Node plus, on average, half an Index node above it
+    static final long SKIP_LIST_ENTRY = align(OBJECT_HEADER + 3 * REFERENCE) + align(OBJECT_HEADER + 3 * REFERENCE) / 2;
+    // ConcurrentHashMap itself and the KeySetView of ConcurrentHashMap.newKeySet()
+    private static final long CONCURRENT_SET = align(OBJECT_HEADER + 6 * REFERENCE + 20)
+            + align(OBJECT_HEADER + 2 * REFERENCE);
+
+    private ObjectSizes() {
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long object(int references, int primitiveBytes) {
+        return align(OBJECT_HEADER + (long) references * REFERENCE + primitiveBytes);
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return object(1, 8) + array(value.length(), latin1 ? 1 : 2);
+    }
+
+    static long concurrentSet(int entries) {
+        return CONCURRENT_SET + hashTable(entries);
+    }
+
+    static long hashTable(int entries) {
+        int slots = Integer.highestOneBit(Math.max(1, (int) (entries / 0.75f)) * 2 - 1);
+        return array(slots, REFERENCE) + (long) entries * MAP_NODE;
+    }
+}
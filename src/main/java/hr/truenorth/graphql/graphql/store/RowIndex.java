@@ -0,0 +1,75 @@
+package hr.truenorth.graphql.graphql.store;
+
+import java.util.Arrays;
+
+/**
+ * The sorted rows for each int key, such as a dictionary code or an enum ordinal, as
+ * one int array per key. A negative key stands for no value and is never indexed.
+ * Not thread-safe; the owning store guards it with its lock.
+ */
+final class RowIndex {
+    private int[][] rowsByKey = new int[0][];
+    // Only the first counts[key] entries of each array are used
+    private int[] counts = new int[0];
+
+    void add(int key, int row) {
+        if (key < 0) {
+            return;
+        }
+        if (key >= counts.length) {
+            int newLength = Math.max(key + 1, counts.length * 2);
+            rowsByKey = Arrays.copyOf(rowsByKey, newLength);
+            counts = Arrays.copyOf(counts, newLength);
+        }
+        int[] rows = rowsByKey[key];
+        int count = counts[key];
+        if (rows == null || count == rows.length) {
+            rows = Arrays.copyOf(rows == null ? new int[0] : rows, Math.max(4, count * 2));
+            rowsByKey[key] = rows;
+        }
+        // Ids are handed out in order, so this is almost always an append
+        int position = -Arrays.binarySearch(rows, 0, count, row) - 1;
+        System.arraycopy(rows, position, rows, position + 1, count - position);
+        rows[position] = row;
+        counts[key] = count + 1;
+    }
+
+    void remove(int key, int row) {
+        if (key < 0) {
+            return;
+        }
+        int[] rows = rowsByKey[key];
+        int count = counts[key];
+        int position = Arrays.binarySearch(rows, 0, count, row);
+        System.arraycopy(rows, position + 1, rows, position, count - position - 1);
+        counts[key] = count - 1;
+    }
+
+    int count(int key) {
+        return key < 0 || key >= counts.length ? 0 : counts[key];
+    }
+
+    int row(int key, int i) {
+        return rowsByKey[key][i];
+    }
+
+    /**
+     * Copy of a key's rows in ascending order.
+     */
+    int[] rows(int key) {
+        int count = count(key);
+        return count == 0 ? new int[0] : Arrays.copyOf(rowsByKey[key], count);
+    }
+
+    long estimatedBytes() {
+        long bytes = ObjectSizes.object(2, 0)
+                + ObjectSizes.array(rowsByKey.length, ObjectSizes.REFERENCE)
+                + ObjectSizes.array(counts.length, 4);
+        for (int[] rows : rowsByKey) {
+            if (rows != null) {
+                bytes += ObjectSizes.array(rows.length, 4);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,40 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Picks the entity storage layout with {@code app.store=hashmap|columnar}.
+ *
+ * The columnar stores are told where this shard's id counters start and how they step,
+ * so they only allocate rows for ids the shard can hold.
+ */
+@Configuration
+public class StoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.store", havingValue = "columnar")
+    public CommentStore columnarCommentStore(ShardRouter shards) {
+        return new ColumnarCommentStore(shards.firstOwnedId(ShardRouter.FIRST_GENERATED_ID), shards.count());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.store", havingValue = "columnar")
+    public DisclosureStore columnarDisclosureStore(ShardRouter shards) {
+        return new ColumnarDisclosureStore(shards.firstOwnedId(ShardRouter.FIRST_GENERATED_ID), shards.count());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.store", havingValue = "hashmap", matchIfMissing = true)
+    public CommentStore hashMapCommentStore() {
+        return new HashMapCommentStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.store", havingValue = "hashmap", matchIfMissing = true)
+    public DisclosureStore hashMapDisclosureStore() {
+        return new HashMapDisclosureStore();
+    }
+}
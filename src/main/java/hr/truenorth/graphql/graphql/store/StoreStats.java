@@ -0,0 +1,11 @@
+package hr.truenorth.graphql.graphql.store;
+
+/**
+ * Estimated heap used by one store, its secondary indexes included.
+ */
+public record StoreStats(String entity, String layout, int rows, long estimatedBytes, long bytesPerEntity) {
+
+    static StoreStats of(String entity, String layout, int rows, long estimatedBytes) {
+        return new StoreStats(entity, layout, rows, estimatedBytes, rows == 0 ? 0 : estimatedBytes / rows);
+    }
+}
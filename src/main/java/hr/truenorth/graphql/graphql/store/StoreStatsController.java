@@ -0,0 +1,43 @@
+package hr.truenorth.graphql.graphql.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Exposes the estimated heap per entity for the configured storage layout.
+ */
+@RestController
+public class StoreStatsController {
+    private static final Logger logger = LoggerFactory.getLogger(StoreStatsController.class);
+    private final CommentStore commentStore;
+    private final DisclosureStore disclosureStore;
+
+    public StoreStatsController(CommentStore commentStore, DisclosureStore disclosureStore) {
+        this.commentStore = commentStore;
+        this.disclosureStore = disclosureStore;
+    }
+
+    @GetMapping("/admin/stores")
+    public List<StoreStats> stores() {
+        List<StoreStats> stats = List.of(disclosureStore.stats(), commentStore.stats());
+        stats.forEach(StoreStatsController::log);
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logOnStartup() {
+        stores();
+    }
+
+    private static void log(StoreStats stats) {
+        logger.info("{} store ({}): {} rows, ~{} bytes, ~{} bytes per entity",
+                stats.entity(), stats.layout(), stats.rows(), stats.estimatedBytes(),
+                stats.bytesPerEntity());
+    }
+}
@@ -0,0 +1,47 @@
+package hr.truenorth.graphql.graphql.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps repeated strings such as foreign keys to dense int codes, so each distinct value
+ * is held once and a row only needs four bytes for it. Not thread-safe; the owning store
+ * guards it with its lock.
+ */
+final class StringDictionary {
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.computeIfAbsent(value, v -> {
+            values.add(v);
+            return values.size() - 1;
+        });
+    }
+
+    int codeOf(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    long estimatedBytes() {
+        long bytes = ObjectSizes.hashTable(codes.size())
+                + (long) codes.size() * ObjectSizes.object(0, 4)
+                + ObjectSizes.array(values.size(), ObjectSizes.REFERENCE);
+        for (String value : values) {
+            bytes += ObjectSizes.string(value);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,83 @@
+package hr.truenorth.graphql.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.HttpGraphQlClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application the way {@code --spring.profiles.active=reactive} does, on
+ * Netty with non-blocking latency, and calls it over HTTP.
+ */
+class ReactiveProfileTests {
+    private static ConfigurableApplicationContext context;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(GraphqlApplication.class).run(
+                "--spring.profiles.active=reactive",
+                "--server.port=0",
+                "--app.admission.enabled=false");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void runsOnTheReactiveStack() {
+        assertThat(context).isInstanceOf(ReactiveWebServerApplicationContext.class);
+    }
+
+    @Test
+    void nestedQueryResolvesEveryLevel() {
+        ClientGraphQlResponse response = HttpGraphQlClient.create(WebClient.create(baseUrl + "/graphql"))
+                .document("""
+                        { disclosure(id: "1") { title commentsCount
+                            author { name }
+                            comments { content author { name } } } }""")
+                .execute()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(response.field("disclosure.author.name").toEntity(String.class)).isEqualTo("John Doe");
+        assertThat(response.field("disclosure.commentsCount").toEntity(Integer.class)).isEqualTo(2);
+        List<String> commentAuthors = response.field("disclosure.comments").toEntityList(Map.class).stream()
+                .map(comment -> (String) ((Map<?, ?>) comment.get("author")).get("name"))
+                .toList();
+        assertThat(commentAuthors).containsExactlyInAnyOrder("Jane Smith", "Bob Johnson");
+    }
+
+    @Test
+    void batchEndpointIsServed() {
+        JsonNode responses = WebClient.create(baseUrl).post()
+                .uri("/graphql/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        Map.of("query", "{ author(id: \"A3\") { name } }"),
+                        Map.of("query", "{ disclosure(id: \"2\") { author { name } } }")))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block(Duration.ofSeconds(10));
+
+        assertThat(responses).hasSize(2);
+        assertThat(responses.get(0).at("/data/author/name").asText()).isEqualTo("Bob Johnson");
+        assertThat(responses.get(1).at("/data/disclosure/author/name").asText()).isEqualTo("Jane Smith");
+    }
+}
@@ -0,0 +1,106 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each test sends from its own remote address, so the shared context's buckets don't interfere.
+ */
+@SpringBootTest(properties = {
+        "app.admission.burst=2",
+        "app.admission.requests-per-second=0.01",
+        "app.admission.trusted-proxies=10.0.0.1"
+})
+@AutoConfigureMockMvc
+class AdmissionControlTests {
+    private static final String QUERY = "{ authors { id } }";
+    private static final String TRUSTED_PROXY = "10.0.0.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AdmissionControlInterceptor admissionControl;
+
+    @Test
+    void rateLimitedRequestGetsRetryAfterAndAClassifiedError() throws Exception {
+        execute("10.0.0.2", null, QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+        execute("10.0.0.2", null, QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+
+        execute("10.0.0.2", null, QUERY)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+                .andExpect(jsonPath("$.data").doesNotExist())
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("RATE_LIMITED"))
+                .andExpect(jsonPath("$.errors[0].extensions.retryAfterSeconds").value(100));
+    }
+
+    @Test
+    void untrustedClientCannotRotateItsWayOutOfTheLimit() throws Exception {
+        execute("10.0.0.3", "first", QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+        execute("10.0.0.3", "second", QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+
+        execute("10.0.0.3", "third", QUERY)
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("RATE_LIMITED"));
+    }
+
+    @Test
+    void trustedProxyNamesTheClient() throws Exception {
+        execute(TRUSTED_PROXY, "proxied-a", QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+        execute(TRUSTED_PROXY, "proxied-a", QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+        execute(TRUSTED_PROXY, "proxied-a", QUERY)
+                .andExpect(jsonPath("$.errors[0].extensions.classification").value("RATE_LIMITED"));
+
+        execute(TRUSTED_PROXY, "proxied-b", QUERY).andExpect(jsonPath("$.errors").doesNotExist());
+    }
+
+    @Test
+    void cappedRootFieldKeepsItsBulkheadWhateverTheOperationIsCalled() throws Exception {
+        execute("10.0.0.4", null, "query Renamed { disclosuresNPlusOne { id } }")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+        execute("10.0.0.4", null, """
+                query Mixed { authors { id } ...More }
+                fragment More on Query { disclosuresNPlusOne { id } }""")
+                .andExpect(jsonPath("$.errors").doesNotExist());
+
+        Map<String, OperationStats> operations = admissionControl.stats().operations();
+        assertThat(operations).doesNotContainKeys("Renamed", "Mixed");
+        assertThat(operations.get("disclosuresNPlusOne").maxConcurrent()).isEqualTo(2);
+        assertThat(operations.get("disclosuresNPlusOne").admitted()).isEqualTo(2);
+    }
+
+    private ResultActions execute(String remoteAddress, String clientId, String query) throws Exception {
+        return mockMvc.perform(post("/graphql")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                })
+                .headers(clientId != null ? headers(clientId) : new HttpHeaders())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("query", query))));
+    }
+
+    private static HttpHeaders headers(String clientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Client-Id", clientId);
+        return headers;
+    }
+}
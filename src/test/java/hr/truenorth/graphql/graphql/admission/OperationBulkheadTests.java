@@ -0,0 +1,99 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OperationBulkheadTests {
+    private static final Duration LONG_WAIT = Duration.ofMinutes(1);
+
+    private final OperationBulkhead bulkhead = new OperationBulkhead(1, 1);
+
+    @Test
+    void admitsUpToMaxConcurrentRightAway() {
+        OperationBulkhead wide = new OperationBulkhead(2, 0);
+
+        wide.acquire("op", LONG_WAIT).block();
+        wide.acquire("op", LONG_WAIT).block();
+
+        assertThat(wide.stats().inFlight()).isEqualTo(2);
+        assertThat(wide.stats().admitted()).isEqualTo(2);
+    }
+
+    @Test
+    void shedsWhenTheQueueIsFull() {
+        bulkhead.acquire("op", LONG_WAIT).block();
+        CompletableFuture<Void> queued = bulkhead.acquire("op", LONG_WAIT).toFuture();
+
+        assertThatThrownBy(() -> bulkhead.acquire("op", LONG_WAIT).block())
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        ex -> assertThat(ex.getCode()).isEqualTo("OVERLOADED"))
+                .hasMessageContaining("Too many pending");
+        assertThat(queued).isNotDone();
+        assertThat(bulkhead.stats().rejectedQueueFull()).isEqualTo(1);
+        assertThat(bulkhead.stats().queueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void shedsAfterWaitingTooLong() {
+        bulkhead.acquire("op", LONG_WAIT).block();
+
+        assertThatThrownBy(() -> bulkhead.acquire("op", Duration.ofMillis(20)).block())
+                .isInstanceOf(AdmissionRejectedException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(bulkhead.stats().rejectedTimeout()).isEqualTo(1);
+        assertThat(bulkhead.stats().queueDepth()).isZero();
+
+        // The expired waiter must not be handed the slot later
+        bulkhead.release();
+        assertThat(bulkhead.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void releaseHandsTheSlotToTheNextWaiter() {
+        bulkhead.acquire("op", LONG_WAIT).block();
+        CompletableFuture<Void> queued = bulkhead.acquire("op", LONG_WAIT).toFuture();
+        assertThat(queued).isNotDone();
+
+        bulkhead.release();
+
+        assertThat(queued).isCompleted();
+        assertThat(bulkhead.stats().inFlight()).isEqualTo(1);
+        assertThat(bulkhead.stats().queueDepth()).isZero();
+        assertThat(bulkhead.stats().admitted()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelledWaiterIsSkippedOnRelease() {
+        OperationBulkhead deep = new OperationBulkhead(1, 2);
+        deep.acquire("op", LONG_WAIT).block();
+        Disposable cancelled = deep.acquire("op", LONG_WAIT).subscribe();
+        CompletableFuture<Void> next = deep.acquire("op", LONG_WAIT).toFuture();
+
+        cancelled.dispose();
+        assertThat(deep.stats().queueDepth()).isEqualTo(1);
+
+        deep.release();
+        assertThat(next).isCompleted();
+        assertThat(deep.stats().inFlight()).isEqualTo(1);
+        assertThat(deep.stats().queueDepth()).isZero();
+    }
+
+    @Test
+    void cancelledWaiterDoesNotLeakTheSlot() {
+        bulkhead.acquire("op", LONG_WAIT).block();
+        Disposable cancelled = bulkhead.acquire("op", LONG_WAIT).subscribe();
+
+        cancelled.dispose();
+        bulkhead.release();
+
+        assertThat(bulkhead.stats().inFlight()).isZero();
+        bulkhead.acquire("op", LONG_WAIT).block();
+        assertThat(bulkhead.stats().inFlight()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,68 @@
+package hr.truenorth.graphql.graphql.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void burstIsAllowedThenRequestsAreRefused() {
+        TokenBucket bucket = new TokenBucket(3, 1, now::get);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void refillsAtTheConfiguredRateUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 4, now::get);
+        bucket.tryConsume();
+        bucket.tryConsume();
+
+        advance(250);
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        advance(10_000);
+        assertThat(bucket.isFull()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSeconds() {
+        TokenBucket bucket = new TokenBucket(1, 0.5, now::get);
+        bucket.tryConsume();
+
+        assertThat(bucket.secondsUntilNextToken()).isEqualTo(2);
+        advance(1_500);
+        assertThat(bucket.secondsUntilNextToken()).isEqualTo(1);
+        advance(500);
+        assertThat(bucket.secondsUntilNextToken()).isZero();
+    }
+
+    @Test
+    void isOnlyFullOnceEveryTokenIsBack() {
+        TokenBucket bucket = new TokenBucket(2, 1, now::get);
+        assertThat(bucket.isFull()).isTrue();
+
+        bucket.tryConsume();
+        assertThat(bucket.isFull()).isFalse();
+        advance(999);
+        assertThat(bucket.isFull()).isFalse();
+        advance(1);
+        assertThat(bucket.isFull()).isTrue();
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,157 @@
+package hr.truenorth.graphql.graphql.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GraphQlBatchControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private AuthorService authorService;
+
+    @Test
+    void responsesComeBackInOperationOrder() throws Exception {
+        JsonNode responses = batch(
+                "{ disclosure(id: \"2\") { title } }",
+                "{ author(id: \"A3\") { name } }",
+                "{ disclosure(id: \"1\") { title } }");
+
+        assertThat(responses).hasSize(3);
+        assertThat(responses.get(0).at("/data/disclosure/title").asText()).startsWith("SQL Injection");
+        assertThat(responses.get(1).at("/data/author/name").asText()).isEqualTo("Bob Johnson");
+        assertThat(responses.get(2).at("/data/disclosure/title").asText()).startsWith("Security Vulnerability");
+    }
+
+    @Test
+    void authorsAreFetchedOnceAcrossOperations() throws Exception {
+        clearInvocations(authorService);
+
+        JsonNode responses = batch(
+                "{ disclosure(id: \"1\") { author { name } } }",
+                "{ disclosure(id: \"3\") { author { name } } }",
+                "{ author(id: \"A1\") { email } }");
+
+        assertThat(responses.get(0).at("/data/disclosure/author/name").asText()).isEqualTo("John Doe");
+        assertThat(responses.get(1).at("/data/disclosure/author/name").asText()).isEqualTo("John Doe");
+        assertThat(responses.get(2).at("/data/author/email").asText()).isEqualTo("john.doe@example.com");
+        verify(authorService, times(1)).findByIdsReactive(anyList());
+    }
+
+    @Test
+    void operationsAfterAMutationSeeItsEffect() throws Exception {
+        JsonNode responses = batch(
+                "{ author(id: \"A2\") { disclosures { id } totalDisclosures } }",
+                """
+                        mutation {
+                          createDisclosure(input: { title: "Batched", severity: LOW, authorId: "A2" }) { id }
+                        }""",
+                "{ author(id: \"A2\") { disclosures { id } totalDisclosures } }");
+
+        String createdId = responses.get(1).at("/data/createDisclosure/id").asText();
+        List<String> before = ids(responses.get(0).at("/data/author/disclosures"));
+        List<String> after = ids(responses.get(2).at("/data/author/disclosures"));
+
+        assertThat(before).doesNotContain(createdId);
+        assertThat(after).containsAll(before).contains(createdId).hasSize(before.size() + 1);
+        assertThat(responses.get(2).at("/data/author/totalDisclosures").asInt())
+                .isEqualTo(responses.get(0).at("/data/author/totalDisclosures").asInt() + 1);
+    }
+
+    @Test
+    void malformedOperationRejectsTheBatchBeforeAnythingRuns() throws Exception {
+        String mutation = """
+                mutation { createDisclosure(input: { title: "Never applied", severity: LOW, authorId: "A2" }) { id } }""";
+        for (Map<String, Object> malformed : List.<Map<String, Object>>of(
+                Map.of("operationName", "NoQuery"),
+                Map.of("query", "{ disclosure(id: \"1\") { "),
+                Map.of("query", "{ disclosure(id: \"1\") { noSuchField } }"))) {
+            mockMvc.perform(post("/graphql/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(Map.of("query", mutation), malformed))))
+                    .andExpect(status().isBadRequest());
+        }
+
+        JsonNode titles = batch("{ disclosures { title } }").get(0).at("/data/disclosures");
+        assertThat(titles.findValuesAsText("title")).doesNotContain("Never applied");
+    }
+
+    @Test
+    void consecutiveQueriesRunAtTheSameTime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            Flux<?> authors = (Flux<?>) invocation.callRealMethod();
+            // Counted before subscribing, the simulated latency runs during subscription
+            return Flux.defer(() -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                return authors;
+            }).doFinally(signal -> running.decrementAndGet());
+        }).when(authorService).findAllReactive();
+
+        JsonNode responses = batch(
+                "{ authors { id } }",
+                "{ authors { name } }",
+                "{ authors { email } }");
+
+        assertThat(responses).hasSize(3);
+        responses.forEach(response -> assertThat(response.at("/data/authors")).isNotEmpty());
+        assertThat(mostRunning.get()).isGreaterThan(1);
+    }
+
+    private JsonNode batch(String... queries) throws Exception {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (String query : queries) {
+            operations.add(Map.of("query", query));
+        }
+        MvcResult started = mockMvc.perform(post("/graphql/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static List<String> ids(JsonNode disclosures) {
+        List<String> ids = new ArrayList<>();
+        disclosures.forEach(disclosure -> ids.add(disclosure.get("id").asText()));
+        return ids;
+    }
+}
@@ -0,0 +1,51 @@
+package hr.truenorth.graphql.graphql.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureHttpGraphQlTester
+class DisclosureFilterTests {
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @Test
+    void filterAndOrderAreApplied() {
+        graphQlTester.document("""
+                        {
+                          disclosures(filter: { statusIn: [PUBLISHED] }, orderBy: { field: SEVERITY, direction: DESC }) {
+                            id
+                          }
+                        }""")
+                .execute()
+                .path("disclosures[*].id").entityList(String.class).containsExactly("1", "2");
+    }
+
+    @Test
+    void invertedDateRangeReturnsNothing() {
+        graphQlTester.document("""
+                        {
+                          disclosures(filter: { publishedFrom: "2025-03-01", publishedTo: "2025-01-01" }) { id }
+                        }""")
+                .execute()
+                .path("disclosures").entityList(Object.class).hasSize(0);
+    }
+
+    @Test
+    void malformedDateIsABadRequest() {
+        graphQlTester.document("{ disclosures(filter: { publishedFrom: \"01/03/2025\" }) { id } }")
+                .execute()
+                .errors().satisfy(errors -> {
+                    assertThat(errors).hasSize(1);
+                    assertThat(errors.get(0).getErrorType()).isEqualTo(ErrorType.BAD_REQUEST);
+                    assertThat(errors.get(0).getMessage()).contains("publishedFrom");
+                });
+    }
+}
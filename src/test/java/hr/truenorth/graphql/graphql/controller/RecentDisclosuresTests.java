@@ -0,0 +1,83 @@
+package hr.truenorth.graphql.graphql.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Sample disclosures are published 2025-01-15 (1), 2025-02-10 (2) and 2025-03-05 (3);
+ * the clock is fixed at 2025-03-20, so the default 30 day window starts at 2025-02-18.
+ */
+@SpringBootTest
+@AutoConfigureHttpGraphQlTester
+class RecentDisclosuresTests {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 20);
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @TestConfiguration
+    static class FixedClock {
+
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            return Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneId.of("UTC"));
+        }
+    }
+
+    @Test
+    void isRecentIsRelativeToTheRequestDate() {
+        graphQlTester.document("{ disclosures(orderBy: { field: PUBLISHED_DATE }) { id isRecent } }")
+                .execute()
+                .path("disclosures[*].id").entityList(String.class).containsExactly("1", "2", "3")
+                .path("disclosures[*].isRecent").entityList(Boolean.class).containsExactly(false, false, true);
+    }
+
+    @Test
+    void recentDisclosuresDefaultsToThirtyDays() {
+        graphQlTester.document("{ recentDisclosures { id } }")
+                .execute()
+                .path("recentDisclosures[*].id").entityList(String.class).containsExactly("3");
+    }
+
+    @Test
+    void explicitNullDaysFallsBackToTheDefault() {
+        graphQlTester.document("{ recentDisclosures(days: null) { id } }")
+                .execute()
+                .path("recentDisclosures[*].id").entityList(String.class).containsExactly("3");
+    }
+
+    @Test
+    void recentDisclosuresAreNewestFirst() {
+        graphQlTester.document("{ recentDisclosures(days: 60) { id } }")
+                .execute()
+                .path("recentDisclosures[*].id").entityList(String.class).containsExactly("3", "2");
+    }
+
+    @Test
+    @DirtiesContext
+    void createdDisclosuresArePublishedOnTheClockDate() {
+        graphQlTester.document("""
+                        mutation {
+                          createDisclosure(input: { title: "New", severity: LOW, authorId: "A1" }) {
+                            publishedDate
+                            isRecent
+                          }
+                        }""")
+                .execute()
+                .path("createDisclosure.publishedDate").entity(String.class).isEqualTo(TODAY.toString())
+                .path("createDisclosure.isRecent").entity(Boolean.class).isEqualTo(true);
+    }
+}
@@ -0,0 +1,106 @@
+package hr.truenorth.graphql.graphql.federation;
+
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@AutoConfigureHttpGraphQlTester
+class FederationEntitiesTests {
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @MockitoSpyBean
+    private AuthorService authorService;
+
+    @MockitoSpyBean
+    private DisclosureService disclosureService;
+
+    @MockitoSpyBean
+    private CommentService commentService;
+
+    @Test
+    void gatewayFanOutCostsOneBackendCallPerType() {
+        StandInGateway gateway = new StandInGateway(graphQlTester);
+        for (int i = 0; i < 100; i++) {
+            gateway.reference("Author", "A" + (i % 3 + 1))
+                    .reference("Disclosure", String.valueOf(i % 3 + 1))
+                    .reference("Comment", "C" + (i % 3 + 1));
+        }
+
+        gateway.resolve()
+                .path("_entities").entityList(Object.class).hasSize(300);
+
+        verify(authorService, times(1)).findByIdsReactive(anyList());
+        verify(disclosureService, times(1)).findByIdsReactive(anyList());
+        verify(commentService, times(1)).findByIdsReactive(anyList());
+    }
+
+    @Test
+    void entitiesComeBackInRepresentationOrder() {
+        GraphQlTester.Response response = new StandInGateway(graphQlTester)
+                .reference("Disclosure", "2")
+                .reference("Author", "A3")
+                .reference("Comment", "C1")
+                .reference("Author", "A1")
+                .resolve();
+
+        response.path("_entities[*].__typename").entityList(String.class)
+                .containsExactly("Disclosure", "Author", "Comment", "Author");
+        response.path("_entities[*].id").entityList(String.class)
+                .containsExactly("2", "A3", "C1", "A1");
+        response.path("_entities[1].name").entity(String.class).isEqualTo("Bob Johnson");
+    }
+
+    @Test
+    void unknownKeyOnlyFailsItsOwnRepresentation() {
+        List<ResponseError> errors = new ArrayList<>();
+        new StandInGateway(graphQlTester)
+                .reference("Author", "A1")
+                .reference("Author", "A404")
+                .resolve()
+                .errors().satisfy(errors::addAll)
+                .path("_entities[0].name").entity(String.class).isEqualTo("John Doe")
+                .path("_entities[1]").valueIsNull();
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getErrorType()).isEqualTo(ErrorType.NOT_FOUND);
+        assertThat(errors.get(0).getPath()).isEqualTo("_entities[1]");
+    }
+
+    @Test
+    void unknownKeysOfEveryTypeReportTheirOwnPosition() {
+        List<ResponseError> errors = new ArrayList<>();
+        new StandInGateway(graphQlTester)
+                .reference("Disclosure", "404")
+                .reference("Comment", "C1")
+                .reference("Comment", "C404")
+                .reference("Disclosure", "1")
+                .resolve()
+                .errors().satisfy(errors::addAll)
+                .path("_entities[0]").valueIsNull()
+                .path("_entities[1].id").entity(String.class).isEqualTo("C1")
+                .path("_entities[2]").valueIsNull()
+                .path("_entities[3].id").entity(String.class).isEqualTo("1");
+
+        assertThat(errors).extracting(ResponseError::getPath).containsExactlyInAnyOrder("_entities[0]", "_entities[2]");
+    }
+}
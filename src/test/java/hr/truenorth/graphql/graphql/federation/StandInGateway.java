@@ -0,0 +1,48 @@
+package hr.truenorth.graphql.graphql.federation;
+
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal stand-in for a federation gateway.
+ *
+ * Like a router resolving references into this subgraph, it collects entity references
+ * and sends them all in a single _entities query, selecting the same fields a real
+ * query plan would for each type.
+ */
+class StandInGateway {
+    private static final String ENTITIES_QUERY = """
+            query ($representations: [_Any!]!) {
+              _entities(representations: $representations) {
+                __typename
+                ... on Author { id name }
+                ... on Disclosure { id title severity }
+                ... on Comment { id content }
+              }
+            }""";
+
+    private final GraphQlTester subgraph;
+    private final List<Map<String, Object>> representations = new ArrayList<>();
+
+    StandInGateway(GraphQlTester subgraph) {
+        this.subgraph = subgraph;
+    }
+
+    StandInGateway reference(String typename, String id) {
+        Map<String, Object> representation = new LinkedHashMap<>();
+        representation.put("__typename", typename);
+        representation.put("id", id);
+        representations.add(representation);
+        return this;
+    }
+
+    GraphQlTester.Response resolve() {
+        return subgraph.document(ENTITIES_QUERY)
+                .variable("representations", representations)
+                .execute();
+    }
+}
@@ -0,0 +1,81 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Heap bytes allocated by the whole JVM since {@link #start()}.
+ *
+ * Per-thread allocation counters disappear with their thread, so HTTP client and server
+ * worker threads that exit during a run would be missed. Instead this adds up what every
+ * collection reclaimed, from GC notifications, plus how much the heap grew. That covers
+ * all threads, exited ones included. Objects that are allocated and never survive to a
+ * collection or the final reading are not seen, which is negligible over a run of seconds.
+ */
+class AllocationMeter implements AutoCloseable {
+    static final String COVERS = "heap bytes allocated by the whole JVM (server, HTTP client and load generator, "
+            + "including threads that exited), measured as heap growth plus bytes reclaimed by GC";
+
+    private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final NotificationListener listener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GcInfo gc = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+            reclaimed.addAndGet(heapUsed(gc.getMemoryUsageBeforeGc()) - heapUsed(gc.getMemoryUsageAfterGc()));
+        }
+    };
+    private long usedAtStart;
+
+    void start() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+        usedAtStart = heapUsed();
+    }
+
+    long allocatedBytes() {
+        return heapUsed() - usedAtStart + reclaimed.get();
+    }
+
+    @Override
+    public void close() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            try {
+                ((NotificationEmitter) collector).removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Never started
+            }
+        }
+    }
+
+    private long heapUsed() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> heapPools.contains(pool.getName()))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+    }
+
+    private long heapUsed(Map<String, MemoryUsage> usageByPool) {
+        return usageByPool.entrySet().stream()
+                .filter(pool -> heapPools.contains(pool.getKey()))
+                .mapToLong(pool -> pool.getValue().getUsed())
+                .sum();
+    }
+}
@@ -0,0 +1,66 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives /graphql with a configurable query mix and writes a latency/throughput report.
+ *
+ * Skipped unless -Dloadtest=true is set. See {@link LoadTestSettings} for the knobs.
+ * Admission control is off by default so it doesn't shed the generated load; pass
+ * -Dloadtest.admission=true to measure with it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.admission.enabled=${loadtest.admission:false}",
+        "logging.level.hr.truenorth=WARN",
+        "logging.level.org.springframework.graphql=INFO"
+})
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class GraphqlLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private DisclosureService disclosureService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private Clock clock;
+
+    @Test
+    void runQueryMix() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        new SyntheticDataGenerator(authorService, disclosureService, commentService, clock)
+                .generate(settings.entities());
+
+        LoadReport report = new LoadGenerator(URI.create("http://localhost:" + port + "/graphql"),
+                QueryMix.parse(settings.mix()), settings).run();
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(settings.report().toFile(), report);
+
+        assertThat(report.overall().requests()).isPositive();
+        assertThat(report.overall().errors()).isZero();
+    }
+}
@@ -0,0 +1,202 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule at the target rate,
+ * whether or not earlier ones have finished.
+ *
+ * Latency is measured from the scheduled start, not the actual send, so a stalled
+ * server shows up in the percentiles instead of silently lowering the offered load.
+ * Arrivals that would exceed maxInFlight are counted as dropped, and measured requests
+ * still outstanding a minute after the run are counted as errors.
+ */
+class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final URI endpoint;
+    private final QueryMix mix;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    // Measured requests by arrival number; whoever removes an entry records it
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    LoadGenerator(URI endpoint, QueryMix mix, LoadTestSettings settings) {
+        this.endpoint = endpoint;
+        this.mix = mix;
+        this.settings = settings;
+        mix.names().forEach(name -> recorders.put(name, new Recorder()));
+    }
+
+    LoadReport run() throws Exception {
+        Map<String, String> bodies = new LinkedHashMap<>();
+        for (String name : mix.names()) {
+            bodies.put(name, objectMapper.writeValueAsString(Map.of("query", QueryMix.QUERIES.get(name))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        SplittableRandom random = new SplittableRandom(7);
+
+        long intervalNanos = (long) (1_000_000_000d / settings.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        AllocationMeter allocations = new AllocationMeter();
+        boolean measuring = false;
+
+        logger.info("Load test: {} req/s for {} after {} warmup against {}",
+                settings.rate(), settings.duration(), settings.warmup(), endpoint);
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && scheduled >= measureFrom) {
+                measuring = true;
+                allocations.start();
+            }
+
+            boolean measured = measuring;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped.incrementAndGet();
+                }
+                continue;
+            }
+
+            String name = mix.next(random);
+            long arrival = i;
+            if (measured) {
+                pending.put(arrival, new Pending(name, scheduled));
+            }
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bodies.get(name)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        // Recorded before the permit goes back, so the final wait covers it
+                        try {
+                            if (measured && pending.remove(arrival) != null) {
+                                boolean error = failure != null || response.statusCode() != 200
+                                        || hasErrors(response.body());
+                                recorders.get(name).record(latency, error);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+
+        // Let outstanding requests finish before reading the numbers
+        if (!inFlight.tryAcquire(settings.maxInFlight(), 60, TimeUnit.SECONDS)) {
+            logger.warn("{} requests still outstanding after 60s, counting them as errors", pending.size());
+        }
+        long now = System.nanoTime();
+        for (Long arrival : pending.keySet()) {
+            Pending stuck = pending.remove(arrival);
+            if (stuck != null) {
+                recorders.get(stuck.name()).record(now - stuck.scheduled(), true);
+            }
+        }
+        long allocated = allocations.allocatedBytes();
+        allocations.close();
+        executor.shutdownNow();
+
+        double seconds = settings.duration().toNanos() / 1_000_000_000d;
+        Map<String, LoadReport.Summary> perQuery = new TreeMap<>();
+        long[] all = new long[0];
+        long errors = 0;
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            Recorder recorder = entry.getValue();
+            long[] latencies = recorder.latencies();
+            perQuery.put(entry.getKey(), LoadReport.Summary.of(latencies, recorder.errors(), seconds));
+            all = concat(all, latencies);
+            errors += recorder.errors();
+        }
+
+        return new LoadReport(settings.rate(), settings.entities(), settings.mix(), seconds, dropped.get(),
+                allocated / seconds / (1024 * 1024), AllocationMeter.COVERS,
+                LoadReport.Summary.of(all, errors, seconds), perQuery);
+    }
+
+    /**
+     * A GraphQL response failed if it has a top-level errors entry; a field merely named
+     * "errors" in the data doesn't count.
+     */
+    private boolean hasErrors(String body) {
+        try {
+            return objectMapper.readTree(body).has("errors");
+        } catch (IOException ex) {
+            return true;
+        }
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private record Pending(String name, long scheduled) {
+    }
+
+    private static class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void record(long latencyNanos, boolean error) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized long[] latencies() {
+            return Arrays.copyOf(latencies, size);
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
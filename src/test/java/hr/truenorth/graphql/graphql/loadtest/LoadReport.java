@@ -0,0 +1,41 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON.
+ *
+ * allocationCovers spells out what allocatedMegabytesPerSecond measures, see {@link AllocationMeter}.
+ */
+record LoadReport(
+        double targetRate,
+        int entities,
+        String mix,
+        double measuredSeconds,
+        long dropped,
+        double allocatedMegabytesPerSecond,
+        String allocationCovers,
+        Summary overall,
+        Map<String, Summary> queries) {
+
+    record Summary(long requests, long errors, double throughputPerSecond,
+                   double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        static Summary of(long[] latenciesNanos, long errors, double seconds) {
+            long[] sorted = latenciesNanos.clone();
+            Arrays.sort(sorted);
+            return new Summary(sorted.length, errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000d);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000d;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test knobs, read from system properties so runs can be tuned from the command line:
+ *
+ * <pre>
+ * ./mvnw test -Dtest=GraphqlLoadTest -Dloadtest=true -Dloadtest.rate=200 -Dloadtest.entities=5000
+ * </pre>
+ */
+record LoadTestSettings(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        int entities,
+        String mix,
+        int maxInFlight,
+        Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Double.parseDouble(System.getProperty("loadtest.rate", "50")),
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 5)),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 30)),
+                Integer.getInteger("loadtest.entities", 200),
+                System.getProperty("loadtest.mix", QueryMix.DEFAULT_MIX),
+                Integer.getInteger("loadtest.maxInFlight", 512),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest/report.json")));
+    }
+}
@@ -0,0 +1,87 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted set of query shapes the load generator draws from.
+ *
+ * A mix is written as "name:weight,name:weight", e.g. "nested:4,authors:1".
+ */
+class QueryMix {
+    static final String DEFAULT_MIX = "nested:4,authors:2,filtered:2,recent:1,author:1,entities:1";
+
+    static final Map<String, String> QUERIES = Map.of(
+            "nested", """
+                    { disclosures { id title severity isRecent
+                        author { name }
+                        comments { content createdAt author { name } } } }""",
+            "authors", """
+                    { authors { id name totalDisclosures disclosures { id title } } }""",
+            "filtered", """
+                    { disclosures(filter: { severityIn: [HIGH, CRITICAL], statusIn: [PUBLISHED] },
+                                  orderBy: { field: PUBLISHED_DATE, direction: DESC }) {
+                        id title publishedDate author { name } } }""",
+            "recent", """
+                    { recentDisclosures(days: 7) { id title commentsCount } }""",
+            "author", """
+                    { author(id: "A1") { name email disclosures { title } } }""",
+            "nPlusOne", """
+                    { disclosuresNPlusOne { id author { name } comments { id } } }""",
+            "entities", """
+                    { _entities(representations: [
+                        { __typename: "Author", id: "A1" }, { __typename: "Disclosure", id: "1" },
+                        { __typename: "Comment", id: "C1" }, { __typename: "Author", id: "A2" }]) {
+                        ... on Author { name } ... on Disclosure { title } ... on Comment { content } } }""");
+
+    private final List<String> names = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private QueryMix(Map<String, Integer> weights) {
+        cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            cumulativeWeights[names.size()] = total;
+            names.add(entry.getKey());
+        }
+        totalWeight = total;
+    }
+
+    static QueryMix parse(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            String name = nameAndWeight[0];
+            if (!QUERIES.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown query '" + name + "', expected one of " + QUERIES.keySet());
+            }
+            int weight = nameAndWeight.length > 1 ? Integer.parseInt(nameAndWeight[1]) : 1;
+            if (weight > 0) {
+                weights.put(name, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Query mix is empty: " + mix);
+        }
+        return new QueryMix(weights);
+    }
+
+    String next(RandomGenerator random) {
+        int ticket = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return names.get(i);
+            }
+        }
+        return names.get(names.size() - 1);
+    }
+
+    List<String> names() {
+        return List.copyOf(names);
+    }
+}
@@ -0,0 +1,199 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hr.truenorth.graphql.graphql.GraphqlApplication;
+import hr.truenorth.graphql.graphql.responsecache.ResponseCacheInterceptor;
+import hr.truenorth.graphql.graphql.responsecache.ResponseCacheStats;
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CPU cost per response with and without the pre-serialized fragment cache.
+ *
+ * Requests go straight to the {@link WebGraphQlHandler} and are then written with the
+ * application's ObjectMapper, the same path the HTTP handler takes, so HTTP client and
+ * socket work stay out of the numbers. Reports process CPU per response, which covers
+ * execution, splicing and writing, and the CPU spent writing the JSON alone.
+ *
+ * Three modes: "uncached" with the cache off, "cached" with every fragment a hit after
+ * the first request, and "miss" with the cache on but no room for fragments. A miss
+ * pays for the splice walk and for encoding each entity to a string before the response
+ * is written around it, so "missOverhead", the difference to "uncached", is the cost of
+ * a cold entry. Every mode runs twice and only the second round is reported, so the
+ * mode that happens to go first does not pay for warming the JIT up.
+ *
+ * Skipped unless -Dloadtest=true is set:
+ *
+ * <pre>
+ * ./mvnw test -Dtest=ResponseCacheBenchmark -Dloadtest=true -Dloadtest.entities=200 -Dloadtest.requests=2000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ResponseCacheBenchmark {
+
+    // The hot paths: the author list and Comment.author repeating the same few authors
+    private static final Map<String, String> QUERIES = Map.of(
+            "authors", "{ authors { name email } }",
+            "nested", """
+                    { disclosures { title severity status publishedDate
+                        author { name }
+                        comments { content author { name } } } }""");
+
+    private static final Map<String, List<String>> MODES = Map.of(
+            "uncached", List.of("--app.response-cache.enabled=false"),
+            "cached", List.of("--app.response-cache.enabled=true"),
+            "miss", List.of("--app.response-cache.enabled=true", "--app.response-cache.max-fragments=0"));
+
+    private static final int CONCURRENCY = 32;
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void cpuPerResponse() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        int requests = Integer.getInteger("loadtest.requests", 1000);
+
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        Map<String, Map<String, String>> bodies = new LinkedHashMap<>();
+        // The modes share one JVM, so the first round only warms the JIT up for all of them
+        for (int round = 0; round < 2; round++) {
+            for (String mode : List.of("uncached", "cached", "miss")) {
+                Map<String, String> modeBodies = new LinkedHashMap<>();
+                report.put(mode, run(MODES.get(mode), settings.entities(), requests, modeBodies));
+                bodies.put(mode, modeBodies);
+            }
+        }
+        report.put("missOverhead", missOverhead(report));
+
+        Path path = settings.report().resolveSibling("response-cache.json");
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+
+        // Splicing must not change a single byte of the response
+        assertThat(bodies.get("cached")).isEqualTo(bodies.get("uncached"));
+        assertThat(bodies.get("miss")).isEqualTo(bodies.get("uncached"));
+        assertThat(((ResponseCacheStats) report.get("cached").get("cache")).hits()).isPositive();
+    }
+
+    // Extra CPU per response of a miss over not caching at all
+    private static Map<String, Object> missOverhead(Map<String, Map<String, Object>> report) {
+        Map<String, Object> overhead = new LinkedHashMap<>();
+        for (String query : QUERIES.keySet()) {
+            double uncached = cpuMicros(report.get("uncached").get(query));
+            double miss = cpuMicros(report.get("miss").get(query));
+            overhead.put(query, Map.of(
+                    "cpuMicrosPerResponse", miss - uncached,
+                    "percent", uncached == 0 ? 0 : 100 * (miss - uncached) / uncached));
+        }
+        return overhead;
+    }
+
+    private static double cpuMicros(Object result) {
+        return (double) ((Map<?, ?>) result).get("cpuMicrosPerResponse");
+    }
+
+    private Map<String, Object> run(List<String> modeArguments, int entities, int requests,
+                                    Map<String, String> bodies) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--app.admission.enabled=false",
+                "--logging.level.hr.truenorth=WARN",
+                "--logging.level.org.springframework.graphql=INFO"));
+        arguments.addAll(modeArguments);
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GraphqlApplication.class)
+                .run(arguments.toArray(String[]::new))) {
+            new SyntheticDataGenerator(context.getBean(AuthorService.class),
+                    context.getBean(DisclosureService.class), context.getBean(CommentService.class),
+                    context.getBean(Clock.class))
+                    .generate(entities);
+            WebGraphQlHandler handler = context.getBean(WebGraphQlHandler.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+                bodies.put(query.getKey(), new String(execute(handler, objectMapper, query.getValue(), new AtomicLong())));
+                measure(handler, objectMapper, query.getValue(), requests / 5);
+                results.put(query.getKey(), measure(handler, objectMapper, query.getValue(), requests));
+            }
+            results.put("cache", context.getBean(ResponseCacheInterceptor.class).stats());
+            return results;
+        }
+    }
+
+    private Map<String, Object> measure(WebGraphQlHandler handler, ObjectMapper objectMapper,
+                                        String document, int requests) throws Exception {
+        AtomicLong writeCpuNanos = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long cpuBefore = os.getProcessCpuTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    bytes.addAndGet(execute(handler, objectMapper, document, writeCpuNanos).length);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long cpuNanos = os.getProcessCpuTime() - cpuBefore;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", requests);
+            result.put("cpuMicrosPerResponse", cpuNanos / 1000d / requests);
+            result.put("writeCpuMicrosPerResponse", writeCpuNanos.get() / 1000d / requests);
+            result.put("bytesPerResponse", bytes.get() / requests);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] execute(WebGraphQlHandler handler, ObjectMapper objectMapper, String document,
+                           AtomicLong writeCpuNanos) throws Exception {
+        WebGraphQlRequest request = new WebGraphQlRequest(URI.create("http://localhost/graphql"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), null, Map.of(),
+                new DefaultGraphQlRequest(document), "benchmark", Locale.ENGLISH);
+        WebGraphQlResponse result = handler.handleRequest(request).block();
+        assertThat(result.getErrors()).isEmpty();
+        Map<String, Object> response = result.toMap();
+
+        long writeStart = threads.getCurrentThreadCpuTime();
+        byte[] json = objectMapper.writeValueAsBytes(response);
+        writeCpuNanos.addAndGet(threads.getCurrentThreadCpuTime() - writeStart);
+        return json;
+    }
+}
@@ -0,0 +1,82 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import hr.truenorth.graphql.graphql.GraphqlApplication;
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same query mix against the servlet mode and the reactive profile, one after
+ * the other, and writes both reports side by side. The default mix includes federation
+ * _entities lookups, which must not block the reactive event loop either.
+ *
+ * Both modes share this JVM, so whichever runs first would also pay for JIT
+ * compilation of the code they have in common. A first, unreported round runs each
+ * mode once to warm them up; the measured round then runs them in the opposite order.
+ *
+ * Skipped unless -Dloadtest=true is set. Slow queries are where the modes differ, so
+ * try a high rate with a large maxInFlight:
+ *
+ * <pre>
+ * ./mvnw test -Dtest=ServletVsReactiveComparisonTest -Dloadtest=true -Dloadtest.rate=1000 -Dloadtest.maxInFlight=4000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ServletVsReactiveComparisonTest {
+
+    @Test
+    void compareThroughput() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        run(settings);
+        run(settings, "reactive");
+
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        reports.put("reactive", run(settings, "reactive"));
+        reports.put("servlet", run(settings));
+
+        Path report = settings.report().resolveSibling("servlet-vs-reactive.json");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(report.toFile(), reports);
+
+        reports.values().forEach(result -> {
+            assertThat(result.overall().requests()).isPositive();
+            assertThat(result.overall().errors()).isZero();
+        });
+    }
+
+    private LoadReport run(LoadTestSettings settings, String... profiles) throws Exception {
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GraphqlApplication.class)
+                .profiles(profiles)
+                .run("--server.port=0",
+                        "--app.admission.enabled=false",
+                        "--logging.level.hr.truenorth=WARN",
+                        "--logging.level.org.springframework.graphql=INFO")) {
+            new SyntheticDataGenerator(context.getBean(AuthorService.class),
+                    context.getBean(DisclosureService.class), context.getBean(CommentService.class),
+                    context.getBean(Clock.class))
+                    .generate(settings.entities());
+
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            return new LoadGenerator(URI.create("http://localhost:" + port + "/graphql"),
+                    QueryMix.parse(settings.mix()), settings).run();
+        }
+    }
+}
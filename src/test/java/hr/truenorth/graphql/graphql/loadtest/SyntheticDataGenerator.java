@@ -0,0 +1,68 @@
+package hr.truenorth.graphql.graphql.loadtest;
+
+import hr.truenorth.graphql.graphql.model.Author;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+import hr.truenorth.graphql.graphql.service.AuthorService;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Grows the in-memory services to a given size through their public API.
+ *
+ * For N entities it adds N/10 authors, N disclosures and about 3N comments, with a fixed
+ * seed so runs are comparable. Disclosures are spread over the last two years, so date
+ * filters and date ordering see realistic selectivity instead of one shared day.
+ */
+class SyntheticDataGenerator {
+    private static final Severity[] SEVERITIES = Severity.values();
+    private static final DisclosureStatus[] STATUSES = DisclosureStatus.values();
+    private static final int PUBLISHED_WITHIN_DAYS = 730;
+
+    private final AuthorService authorService;
+    private final DisclosureService disclosureService;
+    private final CommentService commentService;
+    private final Random random = new Random(42);
+    // The application's clock, so "published since" cutoffs and the data agree on today
+    private final LocalDate today;
+
+    SyntheticDataGenerator(AuthorService authorService, DisclosureService disclosureService,
+                           CommentService commentService, Clock clock) {
+        this.authorService = authorService;
+        this.disclosureService = disclosureService;
+        this.commentService = commentService;
+        this.today = LocalDate.now(clock);
+    }
+
+    void generate(int entities) {
+        List<String> authorIds = new ArrayList<>(List.of("A1", "A2", "A3"));
+        for (int i = 0; i < Math.max(1, entities / 10); i++) {
+            Author author = authorService.create("Author " + i, "author" + i + "@example.com");
+            authorIds.add(author.getId());
+        }
+
+        for (int i = 0; i < entities; i++) {
+            String authorId = authorIds.get(random.nextInt(authorIds.size()));
+            Disclosure disclosure = disclosureService.create(
+                    "Synthetic disclosure " + i,
+                    "Generated for load testing",
+                    today.minusDays(random.nextInt(PUBLISHED_WITHIN_DAYS)),
+                    SEVERITIES[random.nextInt(SEVERITIES.length)],
+                    STATUSES[random.nextInt(STATUSES.length)],
+                    authorId);
+
+            int comments = random.nextInt(7);
+            for (int c = 0; c < comments; c++) {
+                commentService.create(disclosure.getId(), "Synthetic comment " + c,
+                        authorIds.get(random.nextInt(authorIds.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package hr.truenorth.graphql.graphql.responsecache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.support.DefaultGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Responses with fragments spliced in are compared with the same document run through a
+ * handler that has the other interceptors but not the cache, which is what the HTTP
+ * response would be with the cache off.
+ */
+@SpringBootTest(properties = "app.response-cache.enabled=true")
+@AutoConfigureMockMvc
+class ResponseCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private List<WebGraphQlInterceptor> interceptors;
+
+    @Autowired
+    private ResponseCacheInterceptor responseCache;
+
+    @Test
+    void repeatedQueryIsServedFromTheCacheUnchanged() throws Exception {
+        String query = "{ authors { id name email } }";
+        String uncached = executeUncached(query);
+
+        execute(query);
+        long hitsAfterFirst = responseCache.stats().hits();
+        String cached = execute(query);
+
+        assertThat(responseCache.stats().hits()).isGreaterThan(hitsAfterFirst);
+        assertThat(cached).isEqualTo(uncached);
+    }
+
+    @Test
+    void entitiesAreCachedWithoutSelectingTheirId() throws Exception {
+        String query = """
+                { disclosures { title severity
+                    author { name }
+                    comments { content author { name } } } }""";
+        String uncached = executeUncached(query);
+
+        execute(query);
+        long hitsAfterFirst = responseCache.stats().hits();
+        String cached = execute(query);
+
+        // Three disclosures and the authors of the disclosures and their comments
+        assertThat(responseCache.stats().hits() - hitsAfterFirst).isGreaterThanOrEqualTo(6);
+        assertThat(cached).isEqualTo(uncached);
+    }
+
+    @Test
+    @DirtiesContext
+    void updateReplacesTheCachedDisclosure() throws Exception {
+        String query = "{ disclosure(id: \"2\") { title severity } }";
+        execute(query);
+        execute(query);
+
+        execute("""
+                mutation { updateDisclosure(id: "2", input: { title: "Retitled" }) { id } }""");
+        String afterUpdate = execute(query);
+
+        assertThat(objectMapper.readTree(afterUpdate).at("/data/disclosure/title").asText()).isEqualTo("Retitled");
+        assertThat(afterUpdate).isEqualTo(executeUncached(query));
+    }
+
+    @Test
+    void computedFieldsAreResolvedPerRequest() throws Exception {
+        String query = "{ disclosures { id title isRecent } }";
+        execute(query);
+
+        String cached = execute(query);
+
+        assertThat(cached).isEqualTo(executeUncached(query));
+        assertThat(objectMapper.readTree(cached).at("/data/disclosures/0/isRecent").isBoolean()).isTrue();
+    }
+
+    @Test
+    void aliasedSelectionsGetTheirOwnFragments() throws Exception {
+        String query = """
+                {
+                  plain: author(id: "A1") { id name }
+                  aliased: author(id: "A1") { key: id label: name }
+                  reordered: author(id: "A1") { name id }
+                }""";
+        execute(query);
+
+        String cached = execute(query);
+
+        assertThat(cached).isEqualTo(executeUncached(query));
+        JsonNode data = objectMapper.readTree(cached).get("data");
+        assertThat(data.at("/plain/name").asText()).isEqualTo("John Doe");
+        assertThat(data.at("/aliased/label").asText()).isEqualTo("John Doe");
+        assertThat(data.at("/aliased/key").asText()).isEqualTo("A1");
+        assertThat(data.get("reordered").fieldNames()).toIterable().containsExactly("name", "id");
+    }
+
+    private String execute(String query) throws Exception {
+        MvcResult result = mockMvc.perform(post("/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                .andReturn();
+        // Execution that completes before the handler returns is written synchronously
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        String body = result.getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(body).has("errors")).isFalse();
+        return body;
+    }
+
+    private String executeUncached(String query) throws Exception {
+        WebGraphQlHandler withoutCache = WebGraphQlHandler.builder(graphQlService)
+                .interceptors(interceptors.stream()
+                        .filter(interceptor -> !(interceptor instanceof ResponseCacheInterceptor))
+                        .toList())
+                .build();
+        WebGraphQlRequest request = new WebGraphQlRequest(URI.create("http://localhost/graphql"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), null, Map.of(),
+                new DefaultGraphQlRequest(query), "uncached", Locale.ENGLISH);
+        return objectMapper.writeValueAsString(withoutCache.handleRequest(request).block().toMap());
+    }
+}
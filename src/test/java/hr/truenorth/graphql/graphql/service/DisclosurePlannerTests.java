@@ -0,0 +1,117 @@
+package hr.truenorth.graphql.graphql.service;
+
+import hr.truenorth.graphql.graphql.input.DisclosureFilter;
+import hr.truenorth.graphql.graphql.input.DisclosureOrder;
+import hr.truenorth.graphql.graphql.input.DisclosureOrderField;
+import hr.truenorth.graphql.graphql.input.SortDirection;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+import hr.truenorth.graphql.graphql.shard.ShardProperties;
+import hr.truenorth.graphql.graphql.shard.ShardRouter;
+import hr.truenorth.graphql.graphql.store.HashMapDisclosureStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against the sample data: 1 (CRITICAL, PUBLISHED, A1, 2025-01-15),
+ * 2 (HIGH, PUBLISHED, A2, 2025-02-10) and 3 (MEDIUM, DRAFT, A1, 2025-03-05).
+ */
+class DisclosurePlannerTests {
+    private final DisclosureService service = new DisclosureService(new HashMapDisclosureStore(),
+            new SimulatedLatency(false), new ShardRouter(new ShardProperties(0, List.of(), null, Duration.ofSeconds(5))),
+            Clock.systemUTC());
+
+    @Test
+    void mostSelectiveIndexIsUsed() {
+        assertThat(service.explain(filter(f -> f.setSeverityIn(List.of(Severity.CRITICAL)))))
+                .isEqualTo("severity index");
+        assertThat(service.explain(filter(f -> f.setStatusIn(List.of(DisclosureStatus.PUBLISHED)))))
+                .isEqualTo("status index");
+        assertThat(service.explain(filter(f -> {
+            f.setStatusIn(List.of(DisclosureStatus.PUBLISHED));
+            f.setAuthorId("A2");
+        }))).isEqualTo("author index");
+        assertThat(service.explain(filter(f -> f.setPublishedFrom("2025-03-01"))))
+                .isEqualTo("published date index");
+    }
+
+    @Test
+    void fullScanWhenNoIndexNarrowsItDown() {
+        assertThat(service.explain(filter(f -> f.setStatusIn(List.of(DisclosureStatus.PUBLISHED, DisclosureStatus.DRAFT)))))
+                .isEqualTo("full scan");
+        assertThat(service.explain(new DisclosureFilter())).isEqualTo("full scan");
+    }
+
+    @Test
+    void everyConditionIsAppliedWhicheverPathIsUsed() {
+        List<Disclosure> found = service.find(filter(f -> {
+            f.setAuthorId("A1");
+            f.setSeverityIn(List.of(Severity.CRITICAL, Severity.MEDIUM));
+            f.setPublishedTo("2025-02-28");
+        }), null);
+
+        assertThat(found).extracting(Disclosure::getId).containsExactly("1");
+    }
+
+    @Test
+    void publishedRangeIsInclusive() {
+        assertThat(service.find(filter(f -> {
+            f.setPublishedFrom("2025-02-10");
+            f.setPublishedTo("2025-03-05");
+        }), order(DisclosureOrderField.PUBLISHED_DATE, SortDirection.ASC)))
+                .extracting(Disclosure::getId).containsExactly("2", "3");
+    }
+
+    @Test
+    void invertedRangeIsEmpty() {
+        DisclosureFilter inverted = filter(f -> {
+            f.setPublishedFrom("2025-03-01");
+            f.setPublishedTo("2025-01-01");
+        });
+
+        assertThat(service.find(inverted, null)).isEmpty();
+        assertThat(service.explain(inverted)).isEqualTo("empty range");
+    }
+
+    @Test
+    void malformedDateIsRejected() {
+        assertThatThrownBy(() -> service.find(filter(f -> f.setPublishedFrom("15.01.2025")), null))
+                .isInstanceOf(InvalidFilterException.class)
+                .hasMessageContaining("publishedFrom");
+        assertThatThrownBy(() -> DisclosureService.validate(filter(f -> f.setPublishedTo("yesterday"))))
+                .isInstanceOf(InvalidFilterException.class)
+                .hasMessageContaining("publishedTo");
+    }
+
+    @Test
+    void resultsFollowTheRequestedOrder() {
+        assertThat(service.find(null, order(DisclosureOrderField.TITLE, SortDirection.ASC)))
+                .extracting(Disclosure::getId).containsExactly("3", "2", "1");
+        assertThat(service.find(null, order(DisclosureOrderField.PUBLISHED_DATE, SortDirection.DESC)))
+                .extracting(Disclosure::getId).containsExactly("3", "2", "1");
+        assertThat(service.find(filter(f -> f.setStatusIn(List.of(DisclosureStatus.PUBLISHED))),
+                order(DisclosureOrderField.SEVERITY, SortDirection.DESC)))
+                .extracting(Disclosure::getId).containsExactly("1", "2");
+    }
+
+    private static DisclosureFilter filter(Consumer<DisclosureFilter> conditions) {
+        DisclosureFilter filter = new DisclosureFilter();
+        conditions.accept(filter);
+        return filter;
+    }
+
+    private static DisclosureOrder order(DisclosureOrderField field, SortDirection direction) {
+        DisclosureOrder order = new DisclosureOrder();
+        order.setField(field);
+        order.setDirection(direction);
+        return order;
+    }
+}
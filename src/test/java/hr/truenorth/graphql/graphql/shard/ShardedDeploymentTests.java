@@ -0,0 +1,203 @@
+package hr.truenorth.graphql.graphql.shard;
+
+import hr.truenorth.graphql.graphql.GraphqlApplication;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.service.CommentService;
+import hr.truenorth.graphql.graphql.service.DisclosureService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.HttpSyncGraphQlClient;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Starts three instances in one JVM, each owning a third of the disclosures, and checks
+ * that any of them answers for the whole cluster. Instances alternate between the
+ * hashmap and the columnar store, so both hold strided ids.
+ */
+class ShardedDeploymentTests {
+    private static final int SHARDS = 3;
+    private static final String SECRET = "test-shard-secret";
+    private static final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+    private static final List<HttpSyncGraphQlClient> clients = new ArrayList<>();
+    private static final List<String> baseUrls = new ArrayList<>();
+
+    @BeforeAll
+    static void startInstances() throws IOException {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            ports.add(freePort());
+        }
+        String peers = ports.stream()
+                .map(port -> "http://localhost:" + port)
+                .collect(Collectors.joining(","));
+
+        for (int i = 0; i < SHARDS; i++) {
+            instances.add(new SpringApplicationBuilder(GraphqlApplication.class).run(
+                    "--server.port=" + ports.get(i),
+                    "--app.shard.index=" + i,
+                    "--app.shard.peers=" + peers,
+                    "--app.shard.secret=" + SECRET,
+                    "--app.store=" + (i % 2 == 0 ? "columnar" : "hashmap"),
+                    "--app.admission.enabled=false"));
+            baseUrls.add("http://localhost:" + ports.get(i));
+            clients.add(HttpSyncGraphQlClient.create(RestClient.create(baseUrls.get(i) + "/graphql")));
+        }
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        instances.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void sampleDataIsPartitionedByDisclosureId() {
+        for (int i = 0; i < SHARDS; i++) {
+            int shard = i;
+            ConfigurableApplicationContext instance = instances.get(shard);
+            String sampleId = String.valueOf(shard == 0 ? 3 : shard);
+
+            assertThat(instance.getBean(DisclosureService.class).findById(sampleId)).isPresent();
+            assertThat(instance.getBean(DisclosureService.class).findAll())
+                    .extracting(Disclosure::getId)
+                    .allSatisfy(id -> assertThat(Integer.parseInt(id) % SHARDS).isEqualTo(shard));
+        }
+        // Comments sit with their disclosure
+        assertThat(instances.get(1).getBean(CommentService.class).findByDisclosureId("1")).hasSize(2);
+        assertThat(instances.get(2).getBean(CommentService.class).findByDisclosureId("2")).hasSize(1);
+    }
+
+    @Test
+    void everyInstanceAnswersForTheWholeCluster() {
+        for (HttpSyncGraphQlClient client : clients) {
+            ClientGraphQlResponse response = client.document("""
+                            {
+                              d1: disclosure(id: "1") { title commentsCount comments { id author { id } } }
+                              d2: disclosure(id: "2") { comments { id } }
+                              d3: disclosure(id: "3") { author { name } }
+                              author(id: "A1") { totalDisclosures disclosures { id } }
+                              sample: disclosures(filter: { authorId: "A1" }, orderBy: { field: PUBLISHED_DATE }) { id }
+                            }""")
+                    .executeSync();
+
+            assertThat(response.getErrors()).isEmpty();
+            assertThat(response.field("d1.commentsCount").toEntity(Integer.class)).isEqualTo(2);
+            List<String> commentAuthors = response.field("d1.comments").toEntityList(Map.class).stream()
+                    .map(comment -> (String) ((Map<?, ?>) comment.get("author")).get("id"))
+                    .toList();
+            assertThat(commentAuthors).containsExactlyInAnyOrder("A2", "A3");
+            assertThat(response.field("d2.comments[0].id").toEntity(String.class)).isEqualTo("C3");
+            assertThat(response.field("d3.author.name").toEntity(String.class)).isEqualTo("John Doe");
+            assertThat(response.field("author.totalDisclosures").toEntity(Integer.class)).isEqualTo(2);
+            assertThat(response.field("sample").toEntityList(Disclosure.class))
+                    .extracting(Disclosure::getId)
+                    .containsExactly("1", "3");
+        }
+    }
+
+    @Test
+    void batchedCountsMatchTheirListsOnEveryRow() {
+        for (HttpSyncGraphQlClient client : clients) {
+            ClientGraphQlResponse response = client.document("""
+                            {
+                              authors { totalDisclosures disclosures { id } }
+                              disclosures { commentsCount comments { id } }
+                            }""")
+                    .executeSync();
+
+            assertThat(response.getErrors()).isEmpty();
+            assertThat(response.field("authors").toEntityList(Map.class)).isNotEmpty().allSatisfy(author ->
+                    assertThat(author.get("totalDisclosures")).isEqualTo(((List<?>) author.get("disclosures")).size()));
+            assertThat(response.field("disclosures").toEntityList(Map.class)).hasSizeGreaterThanOrEqualTo(3)
+                    .allSatisfy(disclosure -> assertThat(disclosure.get("commentsCount"))
+                            .isEqualTo(((List<?>) disclosure.get("comments")).size()));
+        }
+    }
+
+    @Test
+    void blockingLocalPartDoesNotHoldBackTheOtherShards() {
+        ShardRouter router = new ShardRouter(new ShardProperties(0,
+                List.of("http://localhost:1", "http://localhost:2"), SECRET, Duration.ofSeconds(5)));
+        CountDownLatch remoteSubscribed = new CountDownLatch(1);
+
+        // The local part only finishes in time if the remote call was started without waiting for it
+        List<Boolean> parts = router.broadcast(
+                        () -> Mono.fromCallable(() -> remoteSubscribed.await(5, TimeUnit.SECONDS)),
+                        shard -> Mono.fromRunnable(remoteSubscribed::countDown).thenReturn(true))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(parts).containsExactly(true, true);
+    }
+
+    @Test
+    void writesGoToTheOwningShard() {
+        String id = clients.get(0)
+                .document("mutation { createDisclosure(input: { title: \"Sharded\", severity: LOW, authorId: \"A3\" }) { id } }")
+                .executeSync()
+                .field("createDisclosure.id").toEntity(String.class);
+        assertThat(Integer.parseInt(id) % SHARDS).isZero();
+
+        ClientGraphQlResponse comment = clients.get(1)
+                .document("mutation($id: ID!) { addComment(disclosureId: $id, input: { content: \"Routed\", authorId: \"A1\" }) { id } }")
+                .variable("id", id)
+                .executeSync();
+        assertThat(comment.getErrors()).isEmpty();
+
+        ClientGraphQlResponse update = clients.get(2)
+                .document("mutation($id: ID!) { updateDisclosure(id: $id, input: { title: \"Renamed\" }) { title } }")
+                .variable("id", id)
+                .executeSync();
+        assertThat(update.getErrors()).isEmpty();
+
+        ConfigurableApplicationContext owner = instances.get(0);
+        assertThat(owner.getBean(DisclosureService.class).findById(id))
+                .get().extracting(Disclosure::getTitle).isEqualTo("Renamed");
+        assertThat(owner.getBean(CommentService.class).findByDisclosureId(id)).hasSize(1);
+        assertThat(clients.get(1)
+                .document("query($id: ID!) { disclosure(id: $id) { comments { content } } }")
+                .variable("id", id)
+                .executeSync()
+                .field("disclosure.comments[0].content").toEntity(String.class))
+                .isEqualTo("Routed");
+    }
+
+    @Test
+    void peerEndpointsRefuseCallsWithoutTheSecret() {
+        RestClient peer = RestClient.create(baseUrls.get(1) + ShardPeerController.PATH);
+
+        assertThatExceptionOfType(HttpClientErrorException.Forbidden.class).isThrownBy(() -> peer.post()
+                .uri("/comments/by-ids").body(List.of("C1")).retrieve().toBodilessEntity());
+        assertThatExceptionOfType(HttpClientErrorException.Forbidden.class).isThrownBy(() -> peer.post()
+                .uri("/comments/by-ids").header(ShardPeerController.SECRET_HEADER, "guess")
+                .body(List.of("C1")).retrieve().toBodilessEntity());
+        assertThat(peer.post()
+                .uri("/comments/by-ids").header(ShardPeerController.SECRET_HEADER, SECRET)
+                .body(List.of("C1")).retrieve().toBodilessEntity().getStatusCode().is2xxSuccessful())
+                .isTrue();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
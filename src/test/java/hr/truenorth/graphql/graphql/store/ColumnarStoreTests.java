@@ -0,0 +1,158 @@
+package hr.truenorth.graphql.graphql.store;
+
+import hr.truenorth.graphql.graphql.model.Comment;
+import hr.truenorth.graphql.graphql.model.Disclosure;
+import hr.truenorth.graphql.graphql.model.DisclosureStatus;
+import hr.truenorth.graphql.graphql.model.Severity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ColumnarStoreTests {
+
+    @Test
+    void disclosuresRoundTripThroughColumns() {
+        ColumnarDisclosureStore store = new ColumnarDisclosureStore();
+        Disclosure disclosure = new Disclosure("2000", "Title", null, LocalDate.of(1969, 12, 31),
+                Severity.HIGH, DisclosureStatus.PUBLISHED, "A1");
+        store.put(disclosure);
+
+        assertThat(store.get("2000")).usingRecursiveComparison().isEqualTo(disclosure);
+        assertThat(store.get("1999")).isNull();
+        assertThat(store.get("02000")).isNull();
+        assertThat(store.ids()).containsExactly("2000");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void disclosureChangesOnlyStickWhenWrittenBack() {
+        ColumnarDisclosureStore store = new ColumnarDisclosureStore();
+        store.put(new Disclosure("1", "Title", "Text", LocalDate.of(2025, 1, 1),
+                Severity.LOW, DisclosureStatus.DRAFT, "A1"));
+
+        Disclosure copy = store.get("1");
+        copy.setStatus(DisclosureStatus.PUBLISHED);
+        assertThat(store.get("1").getStatus()).isEqualTo(DisclosureStatus.DRAFT);
+
+        store.put(copy);
+        assertThat(store.get("1").getStatus()).isEqualTo(DisclosureStatus.PUBLISHED);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void commentsAreGroupedByDisclosureInIdOrder() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_456_789);
+        store.put(new Comment("C3", "third", createdAt, "A1", "2"));
+        store.put(new Comment("C1", "first", createdAt, "A2", "1"));
+        store.put(new Comment("C2", "second", null, "A1", "1"));
+
+        Map<String, List<Comment>> byDisclosure = store.findByDisclosureIds(List.of("1", "unknown"));
+
+        assertThat(byDisclosure.get("1")).extracting(Comment::getId).containsExactly("C1", "C2");
+        assertThat(byDisclosure.get("unknown")).isEmpty();
+        assertThat(store.get("C1").getCreatedAt()).isEqualTo(createdAt);
+        assertThat(store.get("C2").getCreatedAt()).isNull();
+    }
+
+    @Test
+    void commentMovedToAnotherDisclosureIsOnlyFoundThere() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+        store.put(new Comment("C1", "first", null, "A1", "1"));
+        store.put(new Comment("C2", "second", null, "A1", "1"));
+        store.put(new Comment("C3", "third", null, "A1", "1"));
+
+        store.put(new Comment("C2", "second, moved", null, "A1", "2"));
+        store.put(new Comment("C3", "third, edited", null, "A1", "1"));
+
+        Map<String, List<Comment>> byDisclosure = store.findByDisclosureIds(List.of("1", "2"));
+
+        assertThat(byDisclosure.get("1")).extracting(Comment::getContent).containsExactly("first", "third, edited");
+        assertThat(byDisclosure.get("2")).extracting(Comment::getContent).containsExactly("second, moved");
+        assertThat(store.countByDisclosureIds(List.of("1", "2", "9"))).containsExactlyInAnyOrderEntriesOf(
+                Map.of("1", 2, "2", 1, "9", 0));
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shardsStridedIdsInConsecutiveRows() {
+        // Third of three shards: its counter hands out 5, 8, 11, ...
+        ColumnarDisclosureStore store = new ColumnarDisclosureStore(5, 3);
+        store.put(disclosure("2"));
+        store.put(disclosure("5"));
+        store.put(disclosure("305"));
+
+        assertThat(store.ids()).containsExactly("2", "5", "305");
+        assertThat(store.get("305").getId()).isEqualTo("305");
+        assertThat(store.get("6")).isNull();
+        assertThatIllegalArgumentException().isThrownBy(() -> store.put(disclosure("6")));
+        // Row 105 rather than 305
+        assertThat(store.capacity()).isEqualTo(128);
+    }
+
+    @Test
+    void disclosureIndexesFollowUpdatesInBothLayouts() {
+        for (DisclosureStore store : List.of(new ColumnarDisclosureStore(), new HashMapDisclosureStore())) {
+            store.put(new Disclosure("1", "One", null, LocalDate.of(2025, 1, 1), Severity.LOW, DisclosureStatus.DRAFT, "A1"));
+            store.put(new Disclosure("2", "Two", null, LocalDate.of(2025, 2, 1), Severity.LOW, DisclosureStatus.DRAFT, "A2"));
+            store.put(new Disclosure("3", "Three", null, LocalDate.of(2025, 3, 1), Severity.HIGH, DisclosureStatus.DRAFT, "A1"));
+
+            store.put(new Disclosure("1", "One", null, LocalDate.of(2025, 1, 1), Severity.HIGH, DisclosureStatus.PUBLISHED, "A1"));
+
+            assertThat(ids(store.withSeverity(Severity.LOW))).containsExactly("2");
+            assertThat(ids(store.withSeverity(Severity.HIGH))).containsExactlyInAnyOrder("1", "3");
+            assertThat(store.withStatus(DisclosureStatus.PUBLISHED).size()).isEqualTo(1);
+            assertThat(ids(store.byAuthor("A1"))).containsExactlyInAnyOrder("1", "3");
+            assertThat(store.byAuthor("nobody").size()).isZero();
+            assertThat(store.publishedBetween(LocalDate.of(2025, 2, 1), null))
+                    .flatExtracting(ColumnarStoreTests::ids).containsExactly("3", "2");
+        }
+    }
+
+    @Test
+    void repeatedTextIsStoredOnce() {
+        ColumnarCommentStore repeated = new ColumnarCommentStore();
+        ColumnarCommentStore distinct = new ColumnarCommentStore();
+        for (int i = 1; i <= 1000; i++) {
+            repeated.put(new Comment("C" + i, "Confirmed on our side as well.", null, "A1", "1"));
+            distinct.put(new Comment("C" + i, "Confirmed on our side as well, case " + i, null, "A1", "1"));
+        }
+
+        assertThat(repeated.get("C500").getContent()).isEqualTo("Confirmed on our side as well.");
+        assertThat(repeated.stats().estimatedBytes()).isLessThan(distinct.stats().estimatedBytes() / 2);
+    }
+
+    @Test
+    void idPastTheLargestColumnIsRejected() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> store.put(new Comment("C" + Integer.MAX_VALUE, "text", null, "A1", "1")))
+                .withMessageContaining("largest column");
+    }
+
+    @Test
+    void rejectsIdsWithoutTheNumericShape() {
+        ColumnarCommentStore store = new ColumnarCommentStore();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> store.put(new Comment("X1", "text", null, "A1", "1")));
+        assertThat(store.get("C+1")).isNull();
+    }
+
+    private static List<String> ids(DisclosureBucket bucket) {
+        return bucket.disclosures().get().map(Disclosure::getId).toList();
+    }
+
+    private static Disclosure disclosure(String id) {
+        return new Disclosure(id, "Title " + id, null, LocalDate.of(2025, 1, 1),
+                Severity.LOW, DisclosureStatus.DRAFT, "A1");
+    }
+}